@@ -0,0 +1,39 @@
+package com.backend.catalog.controller;
+
+import com.backend.catalog.dto.SearchSweetRequest;
+import com.backend.catalog.dto.SweetResponse;
+import com.backend.catalog.services.SweetCatalogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only mirror of the catalog GETs in the Kata {@code SweetController}. Lists are
+ * written as rows arrive, either as one JSON array or, with
+ * {@code Accept: application/x-ndjson}, one sweet per line; a slow client only slows
+ * the rows requested from the database for its own response.
+ */
+@RestController
+@RequestMapping("/api/sweets")
+@RequiredArgsConstructor
+public class SweetCatalogController {
+
+    private final SweetCatalogService sweetCatalogService;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<SweetResponse> getAllSweets() {
+        return sweetCatalogService.getAllSweets();
+    }
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<SweetResponse> searchSweets(@ModelAttribute SearchSweetRequest request) {
+        return sweetCatalogService.searchSweets(request);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<SweetResponse> getSweetById(@PathVariable Long id) {
+        return sweetCatalogService.getSweetById(id);
+    }
+}
@@ -0,0 +1,13 @@
+package com.backend.catalog.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class SearchSweetRequest {
+    private String name;
+    private String category;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
@@ -0,0 +1,23 @@
+package com.backend.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Same JSON shape as {@code com.backend.Kata.dto.SweetResponse}, so clients can switch
+ * between the two APIs without changes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweetResponse {
+    private Long id;
+    private String name;
+    private String category;
+    private BigDecimal price;
+    private Integer quantity;
+    private Long version;
+}
@@ -0,0 +1,32 @@
+package com.backend.catalog.entities;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of the {@code sweet} table owned by the Kata application and its Flyway
+ * migrations. Only the columns the catalog API returns are mapped.
+ */
+@Data
+@NoArgsConstructor
+@Table("sweet")
+public class Sweet {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    private String category;
+
+    private BigDecimal price;
+
+    private Integer quantity;
+
+    // Plain column, not @Version: this side never writes
+    private Long version;
+}
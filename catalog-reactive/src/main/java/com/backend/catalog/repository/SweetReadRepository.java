@@ -0,0 +1,41 @@
+package com.backend.catalog.repository;
+
+import com.backend.catalog.entities.Sweet;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only access to {@code sweet}; there are deliberately no save or delete methods.
+ * Rows are emitted as the driver decodes them, on demand from the subscriber.
+ */
+@org.springframework.stereotype.Repository
+public interface SweetReadRepository extends Repository<Sweet, Long> {
+
+    Mono<Sweet> findById(Long id);
+
+    @Query("SELECT id, name, category, price, quantity FROM sweet ORDER BY name, id")
+    Flux<Sweet> findAllOrdered();
+
+    /**
+     * Same filters as the Kata repository's {@code searchSweets}, on the normalized
+     * columns so category and price are served by {@code idx_sweet_category_price} and
+     * {@code idx_sweet_price}.
+     */
+    @Query("SELECT id, name, category, price, quantity FROM sweet WHERE " +
+           "(:name IS NULL OR name_normalized LIKE CONCAT('%', LOWER(:name), '%')) AND " +
+           "(:category IS NULL OR category_normalized = LOWER(:category)) AND " +
+           "(:minPrice IS NULL OR price >= :minPrice) AND " +
+           "(:maxPrice IS NULL OR price <= :maxPrice) " +
+           "ORDER BY name, id")
+    Flux<Sweet> search(
+            @Param("name") String name,
+            @Param("category") String category,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice
+    );
+}
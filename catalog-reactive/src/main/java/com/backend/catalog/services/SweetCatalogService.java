@@ -0,0 +1,15 @@
+package com.backend.catalog.services;
+
+import com.backend.catalog.dto.SearchSweetRequest;
+import com.backend.catalog.dto.SweetResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface SweetCatalogService {
+
+    Flux<SweetResponse> getAllSweets();
+
+    Flux<SweetResponse> searchSweets(SearchSweetRequest request);
+
+    Mono<SweetResponse> getSweetById(Long id);
+}
@@ -0,0 +1,54 @@
+package com.backend.catalog.services.impl;
+
+import com.backend.catalog.dto.SearchSweetRequest;
+import com.backend.catalog.dto.SweetResponse;
+import com.backend.catalog.entities.Sweet;
+import com.backend.catalog.repository.SweetReadRepository;
+import com.backend.catalog.services.SweetCatalogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class SweetCatalogServiceImpl implements SweetCatalogService {
+
+    private final SweetReadRepository sweetReadRepository;
+
+    @Override
+    public Flux<SweetResponse> getAllSweets() {
+        return sweetReadRepository.findAllOrdered().map(this::mapToResponse);
+    }
+
+    @Override
+    public Flux<SweetResponse> searchSweets(SearchSweetRequest request) {
+        return sweetReadRepository.search(
+                request.getName(),
+                request.getCategory(),
+                request.getMinPrice(),
+                request.getMaxPrice()
+        ).map(this::mapToResponse);
+    }
+
+    @Override
+    public Mono<SweetResponse> getSweetById(Long id) {
+        return sweetReadRepository.findById(id)
+                .map(this::mapToResponse)
+                .switchIfEmpty(Mono.error(() ->
+                        new ResponseStatusException(HttpStatus.NOT_FOUND, "Sweet not found with id: " + id)));
+    }
+
+    private SweetResponse mapToResponse(Sweet sweet) {
+        return new SweetResponse(
+                sweet.getId(),
+                sweet.getName(),
+                sweet.getCategory(),
+                sweet.getPrice(),
+                sweet.getQuantity(),
+                sweet.getVersion()
+        );
+    }
+}
@@ -0,0 +1,156 @@
+package com.backend.catalog.controller;
+
+import com.backend.catalog.dto.SweetResponse;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end checks of the reactive catalog over a real port, plus a load run: many
+ * concurrent clients each stream the whole catalog and read it slowly. The run prints
+ * rows per second and the JVM's peak thread count; it asserts that every client got
+ * every row and that the server did not need a thread per connection.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+class SweetCatalogLoadTest {
+
+    private static final int SWEETS = 200;
+    private static final int CLIENTS = 2000;
+    private static final Duration CLIENT_DELAY_PER_ROW = Duration.ofMillis(1);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${kata.jwt.signing-key}")
+    private String signingKey;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM sweet").then().block();
+        Flux.range(0, SWEETS)
+                .concatMap(i -> databaseClient
+                        .sql("INSERT INTO sweet (name, category, price, quantity) VALUES (:name, :category, :price, 10)")
+                        .bind("name", String.format("Sweet %03d", i))
+                        .bind("category", i % 2 == 0 ? "Candy" : "Fudge")
+                        .bind("price", new BigDecimal(i % 20).add(new BigDecimal("0.50")))
+                        .then())
+                .blockLast();
+        token = issueToken();
+    }
+
+    @Test
+    void testListSearchAndLookup() {
+        List<SweetResponse> all = webTestClient.get().uri("/api/sweets")
+                .headers(h -> h.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(SweetResponse.class).returnResult().getResponseBody();
+        assertEquals(SWEETS, all.size());
+        assertEquals("Sweet 000", all.get(0).getName());
+
+        webTestClient.get().uri("/api/sweets/search?category=CANDY&maxPrice=5.00")
+                .headers(h -> h.setBearerAuth(token))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(SweetResponse.class)
+                .value(sweets -> assertTrue(sweets.stream().allMatch(s ->
+                        s.getCategory().equals("Candy") && s.getPrice().compareTo(new BigDecimal("5.00")) <= 0)));
+
+        webTestClient.get().uri("/api/sweets/{id}", all.get(0).getId())
+                .headers(h -> h.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(SweetResponse.class)
+                .value(sweet -> assertEquals("Sweet 000", sweet.getName()));
+
+        webTestClient.get().uri("/api/sweets/{id}", -1)
+                .headers(h -> h.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testRequestsWithoutTokenAreRejected() {
+        webTestClient.get().uri("/api/sweets").exchange().expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testManySlowClientsStreamWholeCatalog() {
+        ConnectionProvider connections = ConnectionProvider.builder("catalog-load")
+                .maxConnections(CLIENTS)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .defaultHeaders(h -> h.setBearerAuth(token))
+                .build();
+
+        long began = System.nanoTime();
+        List<Long> rowsPerClient = Flux.range(0, CLIENTS)
+                .flatMap(i -> client.get().uri("/api/sweets")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .retrieve()
+                        .bodyToFlux(SweetResponse.class)
+                        .delayElements(CLIENT_DELAY_PER_ROW)
+                        .count(), CLIENTS)
+                .collectList()
+                .block(Duration.ofMinutes(2));
+        double seconds = (System.nanoTime() - began) / 1_000_000_000.0;
+        int peakThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+        connections.dispose();
+
+        System.out.printf("%d concurrent slow clients: %.0f rows/s, %.1f s, peak JVM threads %d%n",
+                CLIENTS, (double) CLIENTS * SWEETS / seconds, seconds, peakThreads);
+
+        assertEquals(CLIENTS, rowsPerClient.size());
+        assertTrue(rowsPerClient.stream().allMatch(rows -> rows == SWEETS));
+        assertTrue(peakThreads < CLIENTS / 4, () -> "Peak thread count " + peakThreads);
+    }
+
+    // Built exactly as JWTServiceImpl.generateToken in the Kata application builds access tokens
+    private String issueToken() {
+        return Jwts.builder()
+                .setSubject("kiosk@example.com")
+                .claim("authorities", List.of("USER"))
+                .claim("ver", 0L)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 24))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(signingKey)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
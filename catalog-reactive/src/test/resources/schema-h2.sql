@@ -0,0 +1,13 @@
+-- The sweet table as left by the Kata Flyway migrations V1 to V3
+CREATE TABLE IF NOT EXISTS sweet (
+    id                  BIGINT         NOT NULL AUTO_INCREMENT,
+    name                VARCHAR(255)   NOT NULL,
+    category            VARCHAR(255)   NOT NULL,
+    price               DECIMAL(10, 2) NOT NULL,
+    quantity            INT            NOT NULL,
+    version             BIGINT         NOT NULL DEFAULT 0,
+    name_normalized     VARCHAR(255)   GENERATED ALWAYS AS (LOWER(name)),
+    category_normalized VARCHAR(255)   GENERATED ALWAYS AS (LOWER(category)),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_sweet_name UNIQUE (name)
+);
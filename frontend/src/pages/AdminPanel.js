@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { sweetsAPI } from '../services/api';
+import { adminAPI, sweetsAPI } from '../services/api';
 import './AdminPanel.css';
 
 const AdminPanel = () => {
@@ -8,6 +8,7 @@ const AdminPanel = () => {
   const [error, setError] = useState('');
   const [showModal, setShowModal] = useState(false);
   const [editingSweet, setEditingSweet] = useState(null);
+  const [stockAlerts, setStockAlerts] = useState({});
   const [formData, setFormData] = useState({
     name: '',
     category: '',
@@ -19,6 +20,28 @@ const AdminPanel = () => {
     loadSweets();
   }, []);
 
+  // Low-stock alerts are pushed by the server; a closed stream is reopened after a pause
+  useEffect(() => {
+    const controller = new AbortController();
+    const onAlert = (alert) =>
+      setStockAlerts((current) => ({ ...current, [alert.sweetId]: alert }));
+    const listen = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          await adminAPI.streamStockAlerts(onAlert, controller.signal);
+        } catch (error) {
+          if (controller.signal.aborted) {
+            return;
+          }
+          console.error(error);
+        }
+        await new Promise((resolve) => setTimeout(resolve, 5000));
+      }
+    };
+    listen();
+    return () => controller.abort();
+  }, []);
+
   const loadSweets = async () => {
     try {
       setLoading(true);
@@ -165,6 +188,32 @@ const AdminPanel = () => {
     }
   };
 
+  // One request for the whole catalog instead of one per sweet
+  const handleRestockAll = async () => {
+    const quantity = prompt('Enter quantity to add to every sweet:');
+    if (!quantity || isNaN(quantity) || parseInt(quantity) <= 0) {
+      if (quantity !== null) {
+        alert('Please enter a valid positive number');
+      }
+      return;
+    }
+
+    try {
+      const restockQuantity = parseInt(quantity);
+      const items = sweets.map((sweet) => ({ sweetId: sweet.id, quantity: restockQuantity }));
+      const response = await adminAPI.bulkRestock(items);
+      await loadSweets();
+      alert(`Restocked ${response.data.affectedIds.length} sweets with ${restockQuantity} items each!`);
+    } catch (error) {
+      console.error('Bulk restock error:', error);
+      const errorMessage = error.response?.data?.message ||
+                         error.response?.data?.error ||
+                         error.message ||
+                         'Restock failed';
+      alert(errorMessage);
+    }
+  };
+
   if (loading) {
     return <div className="container">Loading...</div>;
   }
@@ -189,10 +238,51 @@ const AdminPanel = () => {
         >
           ➕ Add New Sweet
         </button>
+        {sweets.length > 0 && (
+          <button
+            type="button"
+            className="btn btn-success"
+            onClick={(e) => {
+              e.preventDefault();
+              e.stopPropagation();
+              handleRestockAll();
+            }}
+          >
+            📥 Restock All
+          </button>
+        )}
       </div>
 
       {error && <div className="error">{error}</div>}
 
+      {Object.values(stockAlerts).length > 0 && (
+        <div className="stock-alerts">
+          <h3>⚠️ Low stock</h3>
+          <ul>
+            {Object.values(stockAlerts).map((alert) => (
+              <li key={alert.sweetId}>
+                <strong>{alert.name}</strong> ({alert.category}):{' '}
+                {alert.level === 'OUT_OF_STOCK'
+                  ? 'out of stock'
+                  : `${alert.quantity} left, reorder at ${alert.threshold}`}
+                <button
+                  type="button"
+                  className="btn-dismiss"
+                  onClick={() =>
+                    setStockAlerts((current) => {
+                      const { [alert.sweetId]: dismissed, ...rest } = current;
+                      return rest;
+                    })
+                  }
+                >
+                  ✕
+                </button>
+              </li>
+            ))}
+          </ul>
+        </div>
+      )}
+
       <div className="grid">
         {sweets.length === 0 ? (
           <div className="card" style={{ textAlign: 'center', padding: '60px 20px' }}>
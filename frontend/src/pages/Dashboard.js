@@ -2,12 +2,17 @@ import React, { useState, useEffect } from 'react';
 import { sweetsAPI } from '../services/api';
 import './Dashboard.css';
 
+const PAGE_SIZE = 24;
+
 const Dashboard = () => {
   const [sweets, setSweets] = useState([]);
   const [filteredSweets, setFilteredSweets] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState('');
   const [searchName, setSearchName] = useState('');
+  const [suggestions, setSuggestions] = useState([]);
   const [searchCategory, setSearchCategory] = useState('');
   const [minPrice, setMinPrice] = useState('');
   const [maxPrice, setMaxPrice] = useState('');
@@ -22,12 +27,29 @@ const Dashboard = () => {
     filterSweets();
   }, [sweets, searchName, searchCategory, minPrice, maxPrice]);
 
+  useEffect(() => {
+    if (!searchName.trim()) {
+      setSuggestions([]);
+      return undefined;
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const response = await sweetsAPI.suggest(searchName, 8);
+        setSuggestions(response.data);
+      } catch (error) {
+        console.error(error);
+      }
+    }, 150);
+    return () => clearTimeout(timer);
+  }, [searchName]);
+
   const loadSweets = async () => {
     try {
       setLoading(true);
-      const response = await sweetsAPI.getAll();
-      setSweets(response.data);
-      setFilteredSweets(response.data);
+      const response = await sweetsAPI.getPage(PAGE_SIZE);
+      setSweets(response.data.items);
+      setFilteredSweets(response.data.items);
+      setNextCursor(response.data.nextCursor);
     } catch (error) {
       setError('Failed to load sweets');
       console.error(error);
@@ -36,6 +58,20 @@ const Dashboard = () => {
     }
   };
 
+  const loadMoreSweets = async () => {
+    try {
+      setLoadingMore(true);
+      const response = await sweetsAPI.getPage(PAGE_SIZE, nextCursor);
+      setSweets((loaded) => [...loaded, ...response.data.items]);
+      setNextCursor(response.data.nextCursor);
+    } catch (error) {
+      setError('Failed to load more sweets');
+      console.error(error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const filterSweets = () => {
     let filtered = [...sweets];
 
@@ -83,7 +119,7 @@ const Dashboard = () => {
       setPurchasing({ ...purchasing, [sweetId]: true });
       const response = await sweetsAPI.purchase(sweetId, { quantity: parseInt(quantity) });
       console.log('Purchase response:', response);
-      await loadSweets();
+      setSweets((loaded) => loaded.map((s) => (s.id === sweetId ? response.data : s)));
       setPurchaseQuantity({ ...purchaseQuantity, [sweetId]: '' });
       alert(`Successfully purchased ${quantity} item(s)!`);
     } catch (error) {
@@ -129,7 +165,13 @@ const Dashboard = () => {
           placeholder="🔍 Search by name..."
           value={searchName}
           onChange={(e) => setSearchName(e.target.value)}
+          list="sweet-suggestions"
         />
+        <datalist id="sweet-suggestions">
+          {suggestions.map((suggestion) => (
+            <option key={suggestion.id} value={suggestion.name} />
+          ))}
+        </datalist>
         <select
           value={searchCategory}
           onChange={(e) => setSearchCategory(e.target.value)}
@@ -229,6 +271,14 @@ const Dashboard = () => {
           ))
         )}
       </div>
+
+      {nextCursor && (
+        <div style={{ textAlign: 'center', marginTop: '30px' }}>
+          <button type="button" onClick={loadMoreSweets} disabled={loadingMore}>
+            {loadingMore ? '⏳ Loading...' : 'Load more sweets'}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
@@ -36,20 +36,88 @@ api.interceptors.response.use(
   }
 );
 
+// Last ETag and body per catalog URL: polls send If-None-Match and reuse the body on a 304
+const validators = new Map();
+
+const conditionalGet = async (url, config = {}) => {
+  const key = api.getUri({ url, params: config.params });
+  const cached = validators.get(key);
+  const response = await api.get(url, {
+    ...config,
+    headers: cached ? { ...config.headers, 'If-None-Match': cached.etag } : config.headers,
+    validateStatus: (status) => (status >= 200 && status < 300) || status === 304,
+  });
+  if (response.status === 304 && cached) {
+    return { ...response, data: cached.data };
+  }
+  if (response.headers.etag) {
+    validators.set(key, { etag: response.headers.etag, data: response.data });
+  }
+  return response;
+};
+
 export const authAPI = {
   register: (data) => api.post('/auth/register', data),
   login: (data) => api.post('/auth/login', data),
 };
 
 export const sweetsAPI = {
-  getAll: () => api.get('/sweets'),
-  getById: (id) => api.get(`/sweets/${id}`),
+  getAll: () => conditionalGet('/sweets'),
+  getPage: (limit, cursor) => conditionalGet('/sweets', { params: { limit, cursor } }),
+  getById: (id) => conditionalGet(`/sweets/${id}`),
   create: (data) => api.post('/sweets', data),
   update: (id, data) => api.put(`/sweets/${id}`, data),
   delete: (id) => api.delete(`/sweets/${id}`).then(() => ({ success: true })),
   search: (params) => api.get('/sweets/search', { params }),
+  searchPage: (params, limit, cursor) =>
+    api.get('/sweets/search', { params: { ...params, limit, cursor } }),
+  suggest: (q, limit) => api.get('/sweets/suggest', { params: { q, limit } }),
   purchase: (id, data) => api.post(`/sweets/${id}/purchase`, data),
   restock: (id, data) => api.post(`/sweets/${id}/restock`, data),
+  checkout: (items) => api.post('/sweets/checkout', { items }),
+};
+
+// Admin endpoints are versioned: /api/v1/admin
+export const adminAPI = {
+  bulkDelete: (ids) => api.post('/v1/admin/sweets/bulk-delete', { ids }),
+  bulkRestock: (items) => api.post('/v1/admin/sweets/bulk-restock', { items }),
+  stockAlerts: () => api.get('/v1/admin/stock-alerts'),
+  // EventSource cannot send the bearer token, so the event stream is read through fetch.
+  // Resolves when the server closes the stream; the caller reconnects.
+  streamStockAlerts: async (onAlert, signal) => {
+    const response = await fetch(`${API_BASE_URL}/v1/admin/stock-alerts/stream`, {
+      headers: {
+        Accept: 'text/event-stream',
+        Authorization: `Bearer ${localStorage.getItem('token')}`,
+      },
+      signal,
+    });
+    if (!response.ok) {
+      throw new Error(`Stock alert stream failed with ${response.status}`);
+    }
+    const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+    let buffer = '';
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) {
+        return;
+      }
+      buffer += value;
+      let end;
+      while ((end = buffer.indexOf('\n\n')) >= 0) {
+        const data = buffer
+          .slice(0, end)
+          .split('\n')
+          .filter((line) => line.startsWith('data:'))
+          .map((line) => line.slice(5))
+          .join('\n');
+        buffer = buffer.slice(end + 2);
+        if (data) {
+          onAlert(JSON.parse(data));
+        }
+      }
+    }
+  },
 };
 
 export default api;
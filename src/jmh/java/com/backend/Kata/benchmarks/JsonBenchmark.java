@@ -0,0 +1,43 @@
+package com.backend.Kata.benchmarks;
+
+import com.backend.Kata.dto.SweetResponse;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a catalog response body, {@code List<SweetResponse>}, with a default
+ * Jackson mapper as MVC would write it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private JsonMapper jsonMapper;
+    private List<SweetResponse> sweets;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        sweets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sweets.add(new SweetResponse((long) i, "Sweet " + i, "Candy", new BigDecimal("1.25"), i % 100, 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeSweetList() {
+        return jsonMapper.writeValueAsBytes(sweets);
+    }
+}
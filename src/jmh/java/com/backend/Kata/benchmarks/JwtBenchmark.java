@@ -0,0 +1,50 @@
+package com.backend.Kata.benchmarks;
+
+import com.backend.Kata.entities.Role;
+import com.backend.Kata.entities.User;
+import com.backend.Kata.services.impl.JWTServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and validation. {@code isTokenValid} takes the raw token and so parses it;
+ * {@code verifyCached} is the filter's path once the token is in the verified cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JWTServiceImpl jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTServiceImpl(10_000);
+        user = new User();
+        user.setEmail("bench@example.com");
+        user.setRole(Role.USER);
+        user.setVersion(0);
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public boolean verifyCached() {
+        return jwtService.isTokenValid(jwtService.verify(token), user);
+    }
+}
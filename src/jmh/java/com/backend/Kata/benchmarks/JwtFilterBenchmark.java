@@ -0,0 +1,81 @@
+package com.backend.Kata.benchmarks;
+
+import com.backend.Kata.config.JwtAuthenticationFilter;
+import com.backend.Kata.entities.Role;
+import com.backend.Kata.entities.User;
+import com.backend.Kata.repository.UserRepository;
+import com.backend.Kata.services.UserService;
+import com.backend.Kata.services.impl.AuthMetrics;
+import com.backend.Kata.services.impl.JWTServiceImpl;
+import com.backend.Kata.services.impl.UserVersionCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link JwtAuthenticationFilter}, from the header to a
+ * populated security context. {@code stateless} builds the principal from the token's
+ * claims; {@code lookup} loads the user as the filter does with stateless auth off,
+ * here from memory so only the filter's own cost is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"stateless", "lookup"})
+    private String mode;
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setEmail("bench@example.com");
+        user.setPassword("");
+        user.setRole(Role.USER);
+        user.setVersion(0);
+
+        JWTServiceImpl jwtService = new JWTServiceImpl(10_000);
+        UserService userService = () -> username -> user;
+        UserVersionCache userVersionCache = new UserVersionCache(userRepository(), Duration.ofSeconds(30), 10_000);
+        filter = new JwtAuthenticationFilter(jwtService, userService, userVersionCache,
+                new AuthMetrics(new SimpleMeterRegistry()), mode.equals("stateless"));
+        authorization = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Object authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sweets");
+        request.addHeader("Authorization", authorization);
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    // Only findVersionByEmail is called, by the version cache
+    private static UserRepository userRepository() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findVersionByEmail")) {
+                        return Optional.of(0);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
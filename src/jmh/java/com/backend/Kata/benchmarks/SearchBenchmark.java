@@ -0,0 +1,76 @@
+package com.backend.Kata.benchmarks;
+
+import com.backend.Kata.KataApplication;
+import com.backend.Kata.dto.SearchSweetRequest;
+import com.backend.Kata.dto.SweetResponse;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.SweetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code SweetService.searchSweets} against the embedded H2 database of the {@code h2}
+ * test profile, schema from the Flyway migrations. The application is started once per
+ * fork without a web server and seeded with {@link #ROWS} sweets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final String[] CATEGORIES = {"Candy", "Chocolate", "Cookie", "Fudge", "Toffee"};
+
+    private ConfigurableApplicationContext context;
+    private SweetService sweetService;
+
+    private final SearchSweetRequest byCategoryAndPrice = new SearchSweetRequest();
+    private final SearchSweetRequest byName = new SearchSweetRequest();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(KataApplication.class)
+                .profiles("h2")
+                .web(WebApplicationType.NONE)
+                .run();
+        sweetService = context.getBean(SweetService.class);
+
+        List<Sweet> sweets = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            sweets.add(new Sweet(null, "Sweet " + i, CATEGORIES[i % CATEGORIES.length],
+                    new BigDecimal(i % 50).add(new BigDecimal("0.25")), 10));
+        }
+        context.getBean(SweetRepository.class).saveAll(sweets);
+
+        byCategoryAndPrice.setCategory("fudge");
+        byCategoryAndPrice.setMinPrice(new BigDecimal("10.00"));
+        byCategoryAndPrice.setMaxPrice(new BigDecimal("12.00"));
+        byName.setName("99");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SweetResponse> searchByCategoryAndPrice() {
+        return sweetService.searchSweets(byCategoryAndPrice);
+    }
+
+    @Benchmark
+    public List<SweetResponse> searchByName() {
+        return sweetService.searchSweets(byName);
+    }
+}
@@ -0,0 +1,44 @@
+package com.backend.Kata.services.impl;
+
+import com.backend.Kata.dto.SweetResponse;
+import com.backend.Kata.entities.Sweet;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Entity to DTO mapping as done for every catalog listing, over lists of growing size.
+ * Lives in the service package to reach {@link SweetServiceImpl#mapToResponse}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int size;
+
+    private List<Sweet> sweets;
+
+    @Setup
+    public void setUp() {
+        sweets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sweets.add(new Sweet((long) i, "Sweet " + i, "Candy", new BigDecimal("1.25"), i % 100));
+        }
+    }
+
+    @Benchmark
+    public List<SweetResponse> mapToResponse() {
+        return sweets.stream()
+                .map(SweetServiceImpl::mapToResponse)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,47 @@
+package com.backend.Kata.config;
+
+import com.backend.Kata.services.impl.CatalogVersion;
+import com.backend.Kata.services.impl.SweetCache;
+import com.backend.Kata.services.impl.VersionedCatalogCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    /**
+     * Bounded Caffeine caches with stats recording. Transaction-aware, so puts and
+     * evictions made inside a transaction only apply once it commits; evicting the catalog
+     * listing moves the {@link CatalogVersion}.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${kata.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${kata.cache.ttl:10m}") Duration ttl,
+                                     CatalogVersion catalogVersion) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                Cache adapted = super.adaptCaffeineCache(name, cache);
+                return SweetCache.CATALOG.equals(name) ? new VersionedCatalogCache(adapted, catalogVersion) : adapted;
+            }
+        };
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCacheNames(List.of(SweetCache.SWEETS, SweetCache.CATALOG));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -3,27 +3,58 @@ package com.backend.Kata.config;
 
 import com.backend.Kata.services.JWTService;
 import com.backend.Kata.services.UserService;
+import com.backend.Kata.services.impl.AuthMetrics;
+import com.backend.Kata.services.impl.JWTServiceImpl;
+import com.backend.Kata.services.impl.UserVersionCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final List<String> PUBLIC_PATHS = List.of("/api/auth/", "/api/v1/auth/");
+
     private final JWTService jwtService;
     private final UserService userService;
+    private final UserVersionCache userVersionCache;
+    private final AuthMetrics authMetrics;
+    private final boolean statelessAuth;
+
+    public JwtAuthenticationFilter(JWTService jwtService,
+                                   UserService userService,
+                                   UserVersionCache userVersionCache,
+                                   AuthMetrics authMetrics,
+                                   @Value("${kata.security.stateless-auth.enabled:false}") boolean statelessAuth) {
+        this.jwtService = jwtService;
+        this.userService = userService;
+        this.userVersionCache = userVersionCache;
+        this.authMetrics = authMetrics;
+        this.statelessAuth = statelessAuth;
+    }
+
+    // Sign-up, sign-in and refresh are permitAll and never need the token looked at
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PUBLIC_PATHS.stream().anyMatch(path::startsWith);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -37,11 +68,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
 
           jwt = authHeader.substring(7);
-                userEmail = jwtService.extractUserName(jwt);
+                // One verification per request; the claims are reused for the validity check
+                Claims claims;
+                try {
+                    claims = jwtService.verify(jwt);
+                } catch (JwtException ex) {
+                    authMetrics.jwtRejected(ex);
+                    throw ex;
+                }
+                userEmail = claims.getSubject();
           if(StringUtils.isNotEmpty(userEmail) && SecurityContextHolder.getContext().getAuthentication() == null){
-              UserDetails userDetails = userService.userDetailsService().loadUserByUsername(userEmail);
+              UserDetails userDetails = statelessAuth ? userFromClaims(claims) : null;
+              if (userDetails == null) {
+                  userDetails = userService.userDetailsService().loadUserByUsername(userEmail);
+              }
 
-              if(jwtService.isTokenValid(jwt, userDetails)){
+              if(jwtService.isTokenValid(claims, userDetails)){
                   SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
 
                   UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
@@ -54,4 +96,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
           }
         filterChain.doFilter(request,response);
     }
+
+    /**
+     * Builds the principal from the token alone when it carries authorities and an account
+     * version that is still current. Returns null for older tokens and for accounts that
+     * changed since the token was issued, which then go through a full user load.
+     */
+    private UserDetails userFromClaims(Claims claims) {
+        List<?> authorities = claims.get(JWTServiceImpl.AUTHORITIES_CLAIM, List.class);
+        Object version = claims.get(JWTServiceImpl.VERSION_CLAIM);
+        if (authorities == null || !(version instanceof Number number)
+                || !userVersionCache.isCurrent(claims.getSubject(), number.intValue())) {
+            return null;
+        }
+        return User.withUsername(claims.getSubject())
+                .password("")
+                .authorities(authorities.stream().map(String::valueOf).toArray(String[]::new))
+                .build();
+    }
 }
@@ -0,0 +1,46 @@
+package com.backend.Kata.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt cost for this machine: the highest strength whose hash still fits the
+ * target verification time.
+ * <p>
+ * One hash at {@link #BASELINE_STRENGTH} is timed after a warm-up and extrapolated, since
+ * every extra round doubles the work. The result never drops below the baseline, so a slow
+ * host gets Spring's default rather than weaker hashes.
+ */
+@Slf4j
+final class PasswordHashCalibrator {
+
+    static final int BASELINE_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+    private static final int SAMPLES = 3;
+
+    private PasswordHashCalibrator() {
+    }
+
+    static int calibrate(Duration target) {
+        BCryptPasswordEncoder baseline = new BCryptPasswordEncoder(BASELINE_STRENGTH);
+        String hash = baseline.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            baseline.matches("calibration", hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        int strength = BASELINE_STRENGTH;
+        long cost = best;
+        while (strength < MAX_STRENGTH && cost * 2 <= target.toNanos()) {
+            strength++;
+            cost *= 2;
+        }
+        log.info("BCrypt strength {} (~{} ms per check, target {} ms)",
+                strength, cost / 1_000_000, target.toMillis());
+        return strength;
+    }
+}
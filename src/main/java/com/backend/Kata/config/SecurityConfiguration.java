@@ -2,7 +2,10 @@ package com.backend.Kata.config;
 
 import com.backend.Kata.entities.Role;
 import com.backend.Kata.services.UserService;
+import com.backend.Kata.services.impl.PasswordCheckExecutor;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,18 +24,31 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.DispatcherTypeRequestMatcher;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfiguration {
+    private static final String STOCK_ALERT_STREAM = "/api/v1/admin/stock-alerts/stream";
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final UserService userService;
     private final CorsConfigurationSource corsConfigurationSource;
+    private final PasswordCheckExecutor passwordCheckExecutor;
+
+    @Value("${kata.security.password-hash-target:250ms}")
+    private Duration passwordHashTarget;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http){
@@ -40,6 +56,12 @@ public class SecurityConfiguration {
                 .csrf(AbstractHttpConfigurer::disable).authorizeHttpRequests(request ->
                 request.requestMatchers("/api/v1/auth/**", "/api/auth/**")
                         .permitAll()
+                        // Completing the stock alert stream re-dispatches without the token; the
+                        // original request was already authorized as an admin
+                        .requestMatchers(new AndRequestMatcher(
+                                new DispatcherTypeRequestMatcher(DispatcherType.ASYNC),
+                                PathPatternRequestMatcher.pathPattern(HttpMethod.GET, STOCK_ALERT_STREAM)))
+                        .permitAll()
                         // Admin-only endpoints - must come before general /api/sweets/** matcher
                         .requestMatchers(HttpMethod.DELETE, "/api/sweets/**")
                         .hasAuthority(Role.ADMIN.name())
@@ -48,8 +70,11 @@ public class SecurityConfiguration {
                         // All other sweets endpoints require authentication
                         .requestMatchers("/api/sweets/**")
                         .authenticated()
-                        .requestMatchers("/api/v1/admin").hasAuthority(Role.ADMIN.name())
-                        .requestMatchers("/api/v1/user").hasAuthority(Role.USER.name())
+                        .requestMatchers("/api/v1/admin/**").hasAuthority(Role.ADMIN.name())
+                        // Only served on the internal management port
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority(Role.ADMIN.name())
+                        .requestMatchers("/api/v1/user/**").hasAuthority(Role.USER.name())
                         .anyRequest().authenticated()).sessionManagement(
                                 manager -> manager.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider())
@@ -72,7 +97,8 @@ public class SecurityConfiguration {
 
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-                if (encoder.matches(password, userDetails.getPassword())) {
+                // BCrypt runs on the bounded login pool, not on the request thread
+                if (passwordCheckExecutor.run(() -> encoder.matches(password, userDetails.getPassword()))) {
                     return new UsernamePasswordAuthenticationToken(
                             userDetails,
                             password,
@@ -90,9 +116,19 @@ public class SecurityConfiguration {
         };
     }
 
+    /**
+     * Versioned encoder: new hashes are stored as {@code {bcrypt}...} with a cost calibrated
+     * to {@code kata.security.password-hash-target}. Unprefixed hashes from before are still
+     * matched, and report {@code upgradeEncoding} so sign-in rehashes them, as it does any
+     * hash below the current cost.
+     */
     @Bean
     public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+        String id = "bcrypt";
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(PasswordHashCalibrator.calibrate(passwordHashTarget));
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(id, Map.of(id, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
 
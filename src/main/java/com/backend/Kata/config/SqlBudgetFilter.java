@@ -0,0 +1,71 @@
+package com.backend.Kata.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Logs a warning for every request, and every transaction, that runs more SQL statements
+ * or touches more rows than its budget ({@code kata.sql.budget.*}). Counting is done by
+ * {@link StatementCountingDataSourceConfiguration}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "kata.sql.instrumentation.enabled", havingValue = "true")
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final long requestStatements;
+    private final long requestRows;
+    private final long transactionStatements;
+
+    public SqlBudgetFilter(@Value("${kata.sql.budget.request-statements:10}") long requestStatements,
+                           @Value("${kata.sql.budget.request-rows:1000}") long requestRows,
+                           @Value("${kata.sql.budget.transaction-statements:10}") long transactionStatements) {
+        this.requestStatements = requestStatements;
+        this.requestRows = requestRows;
+        this.transactionStatements = transactionStatements;
+    }
+
+    @PostConstruct
+    void watchTransactions() {
+        SqlStatementCounter.setTransactionListener((name, statements, rows) -> {
+            if (statements > transactionStatements) {
+                log.warn("SQL budget exceeded by transaction {}: {} statements (budget {}), {} rows",
+                        name, statements, transactionStatements, rows);
+            }
+        });
+    }
+
+    @PreDestroy
+    void stopWatchingTransactions() {
+        SqlStatementCounter.setTransactionListener(null);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (scope.statements() > requestStatements || scope.rows() > requestRows) {
+                log.warn("SQL budget exceeded by {} {}: {} statements (budget {}), {} rows (budget {})",
+                        request.getMethod(), request.getRequestURI(),
+                        scope.statements(), requestStatements, scope.rows(), requestRows);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.backend.Kata.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-thread running totals of the SQL statements executed and rows read or written
+ * through the application's {@code DataSource}, fed by
+ * {@link StatementCountingDataSourceConfiguration}.
+ * <p>
+ * A {@link Scope} reports what ran on the current thread since it was opened. Scopes
+ * can nest, so the per-request budget and a test assertion can watch the same calls.
+ * Each transaction also gets a scope, registered on its first statement and reported
+ * to the {@link TransactionListener} when it completes.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<long[]> TOTALS = ThreadLocal.withInitial(() -> new long[2]);
+    private static final Object TRANSACTION_KEY = new Object();
+
+    private static volatile TransactionListener transactionListener;
+
+    private SqlStatementCounter() {
+    }
+
+    public static Scope open() {
+        long[] totals = TOTALS.get();
+        return new Scope(totals, totals[0], totals[1]);
+    }
+
+    static void setTransactionListener(TransactionListener listener) {
+        transactionListener = listener;
+    }
+
+    static void statementExecuted() {
+        TOTALS.get()[0]++;
+        if (transactionListener != null && TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(TRANSACTION_KEY)) {
+            watchTransaction();
+        }
+    }
+
+    static void rowsProcessed(long rows) {
+        if (rows > 0) {
+            TOTALS.get()[1] += rows;
+        }
+    }
+
+    // The statement that triggered this is included: it was counted before the scope opened
+    private static void watchTransaction() {
+        long[] totals = TOTALS.get();
+        Scope scope = new Scope(totals, totals[0] - 1, totals[1]);
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, scope);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+                TransactionListener listener = transactionListener;
+                if (listener != null) {
+                    listener.transactionCompleted(name, scope.statements(), scope.rows());
+                }
+            }
+        });
+    }
+
+    /**
+     * Statements and rows counted on the opening thread since {@link #open()}.
+     */
+    public static final class Scope {
+
+        private final long[] totals;
+        private final long startStatements;
+        private final long startRows;
+
+        private Scope(long[] totals, long startStatements, long startRows) {
+            this.totals = totals;
+            this.startStatements = startStatements;
+            this.startRows = startRows;
+        }
+
+        public long statements() {
+            return totals[0] - startStatements;
+        }
+
+        public long rows() {
+            return totals[1] - startRows;
+        }
+    }
+
+    @FunctionalInterface
+    interface TransactionListener {
+        void transactionCompleted(String name, long statements, long rows);
+    }
+}
@@ -0,0 +1,130 @@
+package com.backend.Kata.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps the {@code DataSource} so every executed statement, and every row it reads or
+ * writes, is counted in {@link SqlStatementCounter}. Rows read are counted as the
+ * caller advances the result set; rows written are the update counts the driver
+ * returns. Off by default, on with {@code kata.sql.instrumentation.enabled=true}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "kata.sql.instrumentation.enabled", havingValue = "true")
+public class StatementCountingDataSourceConfiguration {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)
+                        ? new CountingDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    private static class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private static Connection wrap(Connection connection) {
+            return proxy(Connection.class, connection, (method, result) -> switch (method.getName()) {
+                case "createStatement" -> wrap(Statement.class, (Statement) result);
+                case "prepareStatement" -> wrap(PreparedStatement.class, (PreparedStatement) result);
+                case "prepareCall" -> wrap(CallableStatement.class, (CallableStatement) result);
+                default -> result;
+            });
+        }
+
+        private static <S extends Statement> S wrap(Class<S> type, S statement) {
+            return proxy(type, statement, (method, result) -> {
+                String name = method.getName();
+                if (name.equals("addBatch")) {
+                    return result;
+                }
+                if (name.startsWith("execute")) {
+                    SqlStatementCounter.statementExecuted();
+                    if (result instanceof Integer rows) {
+                        SqlStatementCounter.rowsProcessed(rows);
+                    } else if (result instanceof Long rows) {
+                        SqlStatementCounter.rowsProcessed(rows);
+                    } else if (result instanceof int[] batch) {
+                        for (int rows : batch) {
+                            SqlStatementCounter.rowsProcessed(rows);
+                        }
+                    } else if (result instanceof long[] batch) {
+                        for (long rows : batch) {
+                            SqlStatementCounter.rowsProcessed(rows);
+                        }
+                    } else if (result instanceof ResultSet resultSet) {
+                        return wrap(resultSet);
+                    }
+                } else if (name.equals("getResultSet") && result instanceof ResultSet resultSet) {
+                    return wrap(resultSet);
+                }
+                return result;
+            });
+        }
+
+        private static ResultSet wrap(ResultSet resultSet) {
+            return proxy(ResultSet.class, resultSet, (method, result) -> {
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    SqlStatementCounter.rowsProcessed(1);
+                }
+                return result;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, ResultHandler handler) {
+            return (T) Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("unwrap") || method.getName().equals("isWrapperFor")) {
+                            return invoke(target, method, args);
+                        }
+                        return handler.handle(method, invoke(target, method, args));
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultHandler {
+        Object handle(Method method, Object result) throws Throwable;
+    }
+}
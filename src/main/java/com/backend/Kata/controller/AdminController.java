@@ -1,19 +1,74 @@
 package com.backend.Kata.controller;
 
+import com.backend.Kata.dto.BulkDeleteRequest;
+import com.backend.Kata.dto.BulkOperationResponse;
+import com.backend.Kata.dto.BulkRestockRequest;
+import com.backend.Kata.dto.CacheStatsResponse;
+import com.backend.Kata.dto.ImportReport;
+import com.backend.Kata.dto.InventoryStatsResponse;
+import com.backend.Kata.services.CatalogImportService;
+import com.backend.Kata.services.SweetService;
+import com.backend.Kata.services.impl.InventoryAnalytics;
+import com.backend.Kata.services.impl.SweetCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/admin")
 @RequiredArgsConstructor
 public class AdminController {
 
+    private final CatalogImportService catalogImportService;
+    private final SweetService sweetService;
+    private final SweetCache sweetCache;
+    private final InventoryAnalytics inventoryAnalytics;
+
     @GetMapping
     public ResponseEntity<String> sayHello(){
 
         return  ResponseEntity.ok("Hi admin");
     }
+
+    // The body is read as a stream so large catalogs are never buffered in full
+    @PostMapping(value = "/sweets/import", consumes = "text/csv")
+    public ResponseEntity<ImportReport> importCsv(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(catalogImportService.importCsv(request.getInputStream()));
+    }
+
+    @PostMapping(value = "/sweets/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportReport> importNdjson(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(catalogImportService.importNdjson(request.getInputStream()));
+    }
+
+    // One JDBC batch per chunk instead of one request per sweet; missing ids are listed, not fatal
+    @PostMapping("/sweets/bulk-delete")
+    public ResponseEntity<BulkOperationResponse> bulkDelete(@Valid @RequestBody BulkDeleteRequest request) {
+        return ResponseEntity.ok(sweetService.deleteSweets(request));
+    }
+
+    @PostMapping("/sweets/bulk-restock")
+    public ResponseEntity<BulkOperationResponse> bulkRestock(@Valid @RequestBody BulkRestockRequest request) {
+        return ResponseEntity.ok(sweetService.restockSweets(request));
+    }
+
+    // Served from running aggregates; nothing is queried per request
+    @GetMapping("/stats")
+    public ResponseEntity<InventoryStatsResponse> stats() {
+        return ResponseEntity.ok(inventoryAnalytics.stats());
+    }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<CacheStatsResponse>> cacheStats() {
+        return ResponseEntity.ok(sweetCache.stats());
+    }
 }
@@ -0,0 +1,70 @@
+package com.backend.Kata.controller;
+
+import com.backend.Kata.dto.ReorderThresholdRequest;
+import com.backend.Kata.dto.ReorderThresholdsResponse;
+import com.backend.Kata.dto.StockAlert;
+import com.backend.Kata.services.impl.StockAlerts;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/stock-alerts")
+@RequiredArgsConstructor
+public class StockAlertController {
+
+    private final StockAlerts stockAlerts;
+
+    @GetMapping
+    public ResponseEntity<List<StockAlert>> activeAlerts() {
+        return ResponseEntity.ok(stockAlerts.activeAlerts());
+    }
+
+    // Server-sent events; the connection stays open and receives each new alert
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return stockAlerts.subscribe();
+    }
+
+    @GetMapping("/thresholds")
+    public ResponseEntity<ReorderThresholdsResponse> thresholds() {
+        return ResponseEntity.ok(stockAlerts.thresholds());
+    }
+
+    @PutMapping("/thresholds/sweets/{id}")
+    public ResponseEntity<ReorderThresholdsResponse> setSweetThreshold(@PathVariable Long id,
+                                                                       @Valid @RequestBody ReorderThresholdRequest request) {
+        stockAlerts.setSweetThreshold(id, request.getThreshold());
+        return ResponseEntity.ok(stockAlerts.thresholds());
+    }
+
+    @DeleteMapping("/thresholds/sweets/{id}")
+    public ResponseEntity<Void> clearSweetThreshold(@PathVariable Long id) {
+        stockAlerts.setSweetThreshold(id, null);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/thresholds/categories/{category}")
+    public ResponseEntity<ReorderThresholdsResponse> setCategoryThreshold(@PathVariable String category,
+                                                                          @Valid @RequestBody ReorderThresholdRequest request) {
+        stockAlerts.setCategoryThreshold(category, request.getThreshold());
+        return ResponseEntity.ok(stockAlerts.thresholds());
+    }
+
+    @DeleteMapping("/thresholds/categories/{category}")
+    public ResponseEntity<Void> clearCategoryThreshold(@PathVariable String category) {
+        stockAlerts.setCategoryThreshold(category, null);
+        return ResponseEntity.noContent().build();
+    }
+}
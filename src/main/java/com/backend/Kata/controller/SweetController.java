@@ -1,13 +1,19 @@
 package com.backend.Kata.controller;
 
 import com.backend.Kata.dto.*;
+import com.backend.Kata.services.CatalogExportService;
 import com.backend.Kata.services.SweetService;
+import com.backend.Kata.services.impl.CatalogVersion;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -16,6 +22,8 @@ import java.util.List;
 public class SweetController {
 
     private final SweetService sweetService;
+    private final CatalogExportService catalogExportService;
+    private final CatalogVersion catalogVersion;
 
     @PostMapping
     public ResponseEntity<SweetResponse> createSweet(@Valid @RequestBody CreateSweetRequest request) {
@@ -23,10 +31,29 @@ public class SweetController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // Catalog reads carry the catalog version as a strong ETag; a matching If-None-Match
+    // gets a 304 before the service is called. Returning null tells MVC the 304 is written.
     @GetMapping
-    public ResponseEntity<List<SweetResponse>> getAllSweets() {
+    public ResponseEntity<List<SweetResponse>> getAllSweets(WebRequest webRequest) {
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<SweetResponse> sweets = sweetService.getAllSweets();
-        return ResponseEntity.ok(sweets);
+        return ResponseEntity.ok().eTag(etag).body(sweets);
+    }
+
+    // Keyset-paged variant, selected when the client sends a limit
+    @GetMapping(params = "limit")
+    public ResponseEntity<SweetPage> getSweetsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(sweetService.getSweetsPage(cursor, limit));
     }
 
     @GetMapping("/search")
@@ -35,18 +62,55 @@ public class SweetController {
         return ResponseEntity.ok(sweets);
     }
 
+    @GetMapping(value = "/search", params = "limit")
+    public ResponseEntity<SweetPage> searchSweetsPage(
+            @Valid @ModelAttribute SearchSweetRequest request,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(sweetService.searchSweetsPage(request, cursor, limit));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SweetSuggestion>> suggestSweets(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(sweetService.suggestSweets(query, limit));
+    }
+
+    // Written straight to the response so the catalog is never held in memory
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public void exportSweets(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        catalogExportService.exportNdjson(response.getOutputStream());
+    }
+
+    // A single sweet is tagged "<row version>:<catalog version>". If-None-Match is answered
+    // from the catalog part before the service is called: every stock change moves the
+    // catalog version, including write-behind purchases that leave the row alone. PUT
+    // checks If-Match against the row version.
     @GetMapping("/{id}")
-    public ResponseEntity<SweetResponse> getSweetById(@PathVariable Long id) {
+    public ResponseEntity<SweetResponse> getSweetById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String catalog = catalogVersion.value();
+        String unchanged = unchangedTag(ifNoneMatch, catalog);
+        if (unchanged != null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(unchanged).build();
+        }
         SweetResponse sweet = sweetService.getSweetById(id);
-        return ResponseEntity.ok(sweet);
+        return ResponseEntity.ok().eTag(etag(sweet, catalog)).body(sweet);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<SweetResponse> updateSweet(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateSweetRequest request) {
-        SweetResponse response = sweetService.updateSweet(id, request);
-        return ResponseEntity.ok(response);
+        // Read before the write, so the tag can only be older than the data it goes out with
+        String catalog = catalogVersion.value();
+        SweetResponse response = sweetService.updateSweet(id, request, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(etag(response, catalog)).body(response);
     }
 
     @DeleteMapping("/{id}")
@@ -63,6 +127,12 @@ public class SweetController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/checkout")
+    public ResponseEntity<CheckoutResponse> checkout(@Valid @RequestBody CheckoutRequest request) {
+        CheckoutResponse response = sweetService.checkout(request);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/{id}/restock")
     public ResponseEntity<SweetResponse> restockSweet(
             @PathVariable Long id,
@@ -70,5 +140,43 @@ public class SweetController {
         SweetResponse response = sweetService.restockSweet(id, request);
         return ResponseEntity.ok(response);
     }
+
+    private static String etag(SweetResponse sweet, String catalog) {
+        return "\"" + sweet.getVersion() + ":" + catalog + "\"";
+    }
+
+    // The first strong tag in If-None-Match that was issued at the current catalog version
+    private static String unchangedTag(String ifNoneMatch, String catalog) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("\"") && tag.endsWith(":" + catalog + "\"")) {
+                return tag;
+            }
+        }
+        return null;
+    }
+
+    // One strong tag as issued by etag(), or "*" for any version; only the row version
+    // before the colon is compared. Weak or foreign tags can never match, so they map to
+    // a version no row has and fail the precondition.
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return -1L;
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int colon = value.indexOf(':');
+        try {
+            return Long.valueOf(colon < 0 ? value : value.substring(0, colon));
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
 }
 
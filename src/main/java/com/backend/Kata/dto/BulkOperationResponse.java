@@ -0,0 +1,15 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResponse {
+    private List<Long> affectedIds;
+    private List<Long> missingIds;
+}
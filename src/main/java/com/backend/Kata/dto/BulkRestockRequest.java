@@ -0,0 +1,15 @@
+package com.backend.Kata.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkRestockRequest {
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 10000, message = "At most 10000 items per call")
+    private List<@Valid RestockItem> items;
+}
@@ -0,0 +1,16 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySales {
+    private String category;
+    private long unitsSold;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,17 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryStock {
+    private String category;
+    private long sweets;
+    private long unitsInStock;
+    private BigDecimal inventoryValue;
+}
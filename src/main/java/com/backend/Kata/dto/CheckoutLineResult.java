@@ -0,0 +1,16 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutLineResult {
+    private Long sweetId;
+    private Integer quantity;
+    private boolean success;
+    private Integer remaining;
+    private String error;
+}
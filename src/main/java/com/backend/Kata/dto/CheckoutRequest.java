@@ -0,0 +1,13 @@
+package com.backend.Kata.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CheckoutRequest {
+    @NotEmpty(message = "At least one item is required")
+    private List<@Valid CheckoutItem> items;
+}
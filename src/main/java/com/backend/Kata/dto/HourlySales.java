@@ -0,0 +1,17 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HourlySales {
+    private Instant hour;
+    private long unitsSold;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,20 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<ImportRowError> errors;
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,22 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryStatsResponse {
+    private Instant asOf;
+    private long sweets;
+    private long unitsInStock;
+    private BigDecimal inventoryValue;
+    private List<CategoryStock> categories;
+    private List<SalesWindow> sales;
+    private List<HourlySales> hourly;
+}
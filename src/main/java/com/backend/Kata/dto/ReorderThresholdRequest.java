@@ -0,0 +1,12 @@
+package com.backend.Kata.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ReorderThresholdRequest {
+    @NotNull(message = "Threshold is required")
+    @Min(value = 0, message = "Threshold cannot be negative")
+    private Integer threshold;
+}
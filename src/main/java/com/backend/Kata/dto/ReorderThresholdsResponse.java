@@ -0,0 +1,16 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderThresholdsResponse {
+    private int defaultThreshold;
+    private Map<Long, Integer> sweets;
+    private Map<String, Integer> categories;
+}
@@ -0,0 +1,19 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesWindow {
+    private long hours;
+    private long unitsSold;
+    private BigDecimal revenue;
+    private List<CategorySales> categories;
+    private List<SweetSales> sweets;
+}
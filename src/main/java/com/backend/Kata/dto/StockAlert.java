@@ -0,0 +1,27 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlert {
+    private Long sweetId;
+    private String name;
+    private String category;
+    private long quantity;
+    private int threshold;
+    private Level level;
+    private Instant since;
+
+    // Ordered by severity
+    public enum Level {
+        OK,
+        LOW,
+        OUT_OF_STOCK
+    }
+}
@@ -0,0 +1,16 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweetPage {
+    private List<SweetResponse> items;
+    // Opaque token for the next page, null on the last page
+    private String nextCursor;
+}
@@ -15,5 +15,6 @@ public class SweetResponse {
     private String category;
     private BigDecimal price;
     private Integer quantity;
+    private Long version;
 }
 
@@ -0,0 +1,17 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweetSales {
+    private Long sweetId;
+    private String name;
+    private long unitsSold;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,14 @@
+package com.backend.Kata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweetSuggestion {
+    private Long id;
+    private String name;
+    private String category;
+}
@@ -16,5 +16,8 @@ public class UpdateSweetRequest {
     
     @Positive(message = "Quantity must be positive")
     private Integer quantity;
+
+    // Added to the current stock instead of replacing it; negative to take stock out
+    private Integer quantityChange;
 }
 
@@ -1,17 +1,21 @@
 package com.backend.Kata.entities;
 
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 
 @Data
 @Entity
 @Table(name = "sweet")
+@EntityListeners(SweetIndexListener.class)
+// UPDATEs list only the changed columns, so an edit never writes back a stale quantity
+@DynamicUpdate
 @NoArgsConstructor
-@AllArgsConstructor
 public class Sweet {
 
     @Id
@@ -29,5 +33,27 @@ public class Sweet {
 
     @Column(nullable = false)
     private Integer quantity;
-}
 
+    // Row version, bumped by every write including the bulk stock updates
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Lower-cased copies generated by the database (see V2 migration) so case-insensitive
+    // filters compare plain indexed columns; only used in queries, never written
+    @Setter(AccessLevel.NONE)
+    @Column(name = "name_normalized", insertable = false, updatable = false)
+    private String nameNormalized;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "category_normalized", insertable = false, updatable = false)
+    private String categoryNormalized;
+
+    public Sweet(Long id, String name, String category, BigDecimal price, Integer quantity) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.price = price;
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,54 @@
+package com.backend.Kata.entities;
+
+import com.backend.Kata.dto.SweetSuggestion;
+import com.backend.Kata.services.impl.SweetNameIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps {@link SweetNameIndex} in step with {@link Sweet} rows written through JPA.
+ * Changes are applied after the surrounding transaction commits, so rolled-back names
+ * never show up in suggestions. Bulk JPQL and JDBC writes bypass this listener; those
+ * paths reload the index themselves.
+ */
+@Component
+public class SweetIndexListener {
+
+    // Resolved lazily: the listener is created while the EntityManagerFactory is built
+    private final ObjectProvider<SweetNameIndex> sweetNameIndex;
+
+    public SweetIndexListener(ObjectProvider<SweetNameIndex> sweetNameIndex) {
+        this.sweetNameIndex = sweetNameIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void afterSave(Sweet sweet) {
+        SweetSuggestion suggestion = new SweetSuggestion(sweet.getId(), sweet.getName(), sweet.getCategory());
+        afterCommit(() -> sweetNameIndex.ifAvailable(index -> index.put(suggestion)));
+    }
+
+    @PostRemove
+    public void afterRemove(Sweet sweet) {
+        Long id = sweet.getId();
+        afterCommit(() -> sweetNameIndex.ifAvailable(index -> index.remove(id)));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
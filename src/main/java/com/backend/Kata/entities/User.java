@@ -27,6 +27,11 @@ public class User implements UserDetails {
 
     private Role role;
 
+    // Bumped by every change to the account; tokens carry it so stale ones can be spotted
+    @Version
+    @Column(nullable = false)
+    private Integer version;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(role.name()));
@@ -0,0 +1,19 @@
+package com.backend.Kata.exception;
+
+import com.backend.Kata.dto.CheckoutResponse;
+import lombok.Getter;
+
+/**
+ * Thrown when at least one line of a checkout cannot be fulfilled. Throwing rolls the
+ * whole checkout back; the carried response tells the client which lines failed.
+ */
+@Getter
+public class CheckoutFailedException extends RuntimeException {
+
+    private final CheckoutResponse response;
+
+    public CheckoutFailedException(CheckoutResponse response) {
+        super("Checkout failed");
+        this.response = response;
+    }
+}
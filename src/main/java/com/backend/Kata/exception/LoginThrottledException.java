@@ -0,0 +1,20 @@
+package com.backend.Kata.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the password-check pool and its queue are full. Answered with 503 and a
+ * Retry-After header instead of making the caller wait behind the spike.
+ */
+@Getter
+public class LoginThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(Duration retryAfter) {
+        super("Too many logins in progress, please retry shortly");
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,19 @@
+package com.backend.Kata.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an {@code If-Match} precondition does not hold: the sweet has been changed
+ * since the client read it. Carries the current row version, when known, so the response
+ * can tell the client which tag to re-read.
+ */
+@Getter
+public class PreconditionFailedException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public PreconditionFailedException(String message, Long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+}
@@ -1,7 +1,10 @@
 package com.backend.Kata.repository;
 
+import com.backend.Kata.dto.SweetSuggestion;
 import com.backend.Kata.entities.Sweet;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,15 +13,20 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
-public interface SweetRepository extends JpaRepository<Sweet, Long> {
+public interface SweetRepository extends JpaRepository<Sweet, Long>, SweetRepositoryCustom {
 
     List<Sweet> findByNameContainingIgnoreCase(String name);
 
     List<Sweet> findByCategoryIgnoreCase(String category);
 
+    /**
+     * Filters on the normalized name and category columns and on price, each applied only
+     * when its argument is not null. Category and price are served by
+     * {@code idx_sweet_category_price} and {@code idx_sweet_price}.
+     */
     @Query("SELECT s FROM Sweet s WHERE " +
-           "(:name IS NULL OR LOWER(s.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
-           "(:category IS NULL OR LOWER(s.category) = LOWER(:category)) AND " +
+           "(:name IS NULL OR s.nameNormalized LIKE CONCAT('%', LOWER(:name), '%')) AND " +
+           "(:category IS NULL OR s.categoryNormalized = LOWER(:category)) AND " +
            "(:minPrice IS NULL OR s.price >= :minPrice) AND " +
            "(:maxPrice IS NULL OR s.price <= :maxPrice)")
     List<Sweet> searchSweets(
@@ -27,5 +35,69 @@ public interface SweetRepository extends JpaRepository<Sweet, Long> {
             @Param("minPrice") BigDecimal minPrice,
             @Param("maxPrice") BigDecimal maxPrice
     );
-}
 
+    @Query("SELECT new com.backend.Kata.dto.SweetSuggestion(s.id, s.name, s.category) FROM Sweet s")
+    List<SweetSuggestion> findAllSuggestions();
+
+    /**
+     * One page of the catalog ordered by (name, id), starting after the given position.
+     * Pass a null {@code afterName} for the first page. The seek predicate lets the
+     * database start from the name index instead of skipping rows as OFFSET would; its
+     * leading {@code name >=} term keeps it a single range scan on that index.
+     */
+    @Query("SELECT s FROM Sweet s WHERE " +
+           "(:afterName IS NULL OR (s.name >= :afterName AND (s.name > :afterName OR s.id > :afterId))) " +
+           "ORDER BY s.name, s.id")
+    List<Sweet> findPage(
+            @Param("afterName") String afterName,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    /**
+     * Same filters as {@link #searchSweets}, paged by (name, id) like {@link #findPage}.
+     */
+    @Query("SELECT s FROM Sweet s WHERE " +
+           "(:name IS NULL OR s.nameNormalized LIKE CONCAT('%', LOWER(:name), '%')) AND " +
+           "(:category IS NULL OR s.categoryNormalized = LOWER(:category)) AND " +
+           "(:minPrice IS NULL OR s.price >= :minPrice) AND " +
+           "(:maxPrice IS NULL OR s.price <= :maxPrice) AND " +
+           "(:afterName IS NULL OR (s.name >= :afterName AND (s.name > :afterName OR s.id > :afterId))) " +
+           "ORDER BY s.name, s.id")
+    List<Sweet> searchSweetsPage(
+            @Param("name") String name,
+            @Param("category") String category,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("afterName") String afterName,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    /**
+     * Atomically takes {@code quantity} units off the stock of a sweet, but only if at
+     * least that many are available. Returns the number of rows updated: 1 on success,
+     * 0 when the sweet does not exist or the stock is insufficient.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Sweet s SET s.quantity = s.quantity - :quantity, s.version = s.version + 1 " +
+           "WHERE s.id = :id AND s.quantity >= :quantity")
+    int decrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Deletes a sweet in one statement, without loading it first as {@code deleteById}
+     * would. Returns the number of rows deleted: 0 when the sweet does not exist.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Sweet s WHERE s.id = :id")
+    int deleteSweetById(@Param("id") Long id);
+
+    /**
+     * Atomically adds {@code quantity} units to the stock of a sweet. Returns the number
+     * of rows updated: 0 when the sweet does not exist.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Sweet s SET s.quantity = s.quantity + :quantity, s.version = s.version + 1 " +
+           "WHERE s.id = :id")
+    int incrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+}
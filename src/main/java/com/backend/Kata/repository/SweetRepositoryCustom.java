@@ -0,0 +1,46 @@
+package com.backend.Kata.repository;
+
+import com.backend.Kata.entities.Sweet;
+
+import java.util.List;
+import java.util.SortedMap;
+
+public interface SweetRepositoryCustom {
+
+    /**
+     * Takes stock off several sweets as one JDBC batch, each row guarded like
+     * {@link SweetRepository#decrementQuantity}. Rows are updated in ascending id order so
+     * concurrent batches always lock them in the same order and cannot deadlock.
+     *
+     * @param quantitiesById quantity to take off per sweet id
+     * @return update count per entry, in key order: 1 if applied, 0 if the sweet is
+     * missing or short of stock
+     */
+    int[] decrementQuantities(SortedMap<Long, Integer> quantitiesById);
+
+    /**
+     * Inserts the given sweets, or overwrites category, price and quantity of the existing
+     * sweet with the same name, as one JDBC batch. Ids are assigned by the database and
+     * are not read back.
+     *
+     * @return update count per sweet, in list order
+     */
+    int[] upsertByName(List<Sweet> sweets);
+
+    /**
+     * Deletes the given sweets as JDBC batches of at most {@code chunkSize} statements.
+     * Like the other batches, ids should be passed in ascending order.
+     *
+     * @return update count per id, in list order: 1 if deleted, 0 if the sweet is missing
+     */
+    int[] deleteByIds(List<Long> ids, int chunkSize);
+
+    /**
+     * Adds stock to several sweets as JDBC batches of at most {@code chunkSize} statements,
+     * rows updated in ascending id order as in {@link #decrementQuantities}.
+     *
+     * @param quantitiesById quantity to add per sweet id
+     * @return update count per entry, in key order: 1 if applied, 0 if the sweet is missing
+     */
+    int[] incrementQuantities(SortedMap<Long, Integer> quantitiesById, int chunkSize);
+}
@@ -0,0 +1,73 @@
+package com.backend.Kata.repository;
+
+import com.backend.Kata.entities.Sweet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+@RequiredArgsConstructor
+public class SweetRepositoryImpl implements SweetRepositoryCustom {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE sweet SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND quantity >= ?";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO sweet (name, category, price, quantity) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE category = VALUES(category), price = VALUES(price), quantity = VALUES(quantity), " +
+            "version = version + 1";
+
+    private static final String DELETE_SQL = "DELETE FROM sweet WHERE id = ?";
+
+    private static final String INCREMENT_SQL =
+            "UPDATE sweet SET quantity = quantity + ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] decrementQuantities(SortedMap<Long, Integer> quantitiesById) {
+        List<Object[]> batch = new ArrayList<>(quantitiesById.size());
+        for (Map.Entry<Long, Integer> entry : quantitiesById.entrySet()) {
+            batch.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+        return jdbcTemplate.batchUpdate(DECREMENT_SQL, batch);
+    }
+
+    @Override
+    public int[] upsertByName(List<Sweet> sweets) {
+        List<Object[]> batch = new ArrayList<>(sweets.size());
+        for (Sweet sweet : sweets) {
+            batch.add(new Object[]{sweet.getName(), sweet.getCategory(), sweet.getPrice(), sweet.getQuantity()});
+        }
+        return jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+    }
+
+    @Override
+    public int[] deleteByIds(List<Long> ids, int chunkSize) {
+        return flatten(jdbcTemplate.batchUpdate(DELETE_SQL, ids, chunkSize,
+                (ps, id) -> ps.setLong(1, id)));
+    }
+
+    @Override
+    public int[] incrementQuantities(SortedMap<Long, Integer> quantitiesById, int chunkSize) {
+        return flatten(jdbcTemplate.batchUpdate(INCREMENT_SQL, quantitiesById.entrySet(), chunkSize,
+                (ps, entry) -> {
+                    ps.setInt(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                }));
+    }
+
+    private static int[] flatten(int[][] chunks) {
+        int[] counts = new int[Arrays.stream(chunks).mapToInt(chunk -> chunk.length).sum()];
+        int i = 0;
+        for (int[] chunk : chunks) {
+            System.arraycopy(chunk, 0, counts, i, chunk.length);
+            i += chunk.length;
+        }
+        return counts;
+    }
+}
@@ -3,7 +3,11 @@ package com.backend.Kata.repository;
 import com.backend.Kata.entities.Role;
 import com.backend.Kata.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -15,4 +19,22 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findFirstByEmail(String email);
 
     Optional<User> findByRole(Role role);
+
+    /**
+     * Just the account version, read through the unique email index without loading the
+     * user. Empty when no such account exists.
+     */
+    @Query("SELECT u.version FROM User u WHERE u.email = :email")
+    Optional<Integer> findVersionByEmail(@Param("email") String email);
+
+    /**
+     * Swaps in a rehashed password, but only while the stored hash is still the one that
+     * was verified, so a concurrent password change wins. Leaves the account version alone:
+     * the credential is unchanged and issued tokens stay current.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id AND u.password = :current")
+    int updatePasswordHash(@Param("id") Integer id, @Param("current") String current,
+                           @Param("password") String password);
 }
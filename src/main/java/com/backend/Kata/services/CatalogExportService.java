@@ -0,0 +1,8 @@
+package com.backend.Kata.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface CatalogExportService {
+    long exportNdjson(OutputStream out) throws IOException;
+}
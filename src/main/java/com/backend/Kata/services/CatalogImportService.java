@@ -0,0 +1,11 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.dto.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface CatalogImportService {
+    ImportReport importCsv(InputStream body) throws IOException;
+    ImportReport importNdjson(InputStream body) throws IOException;
+}
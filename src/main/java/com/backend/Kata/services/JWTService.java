@@ -1,5 +1,6 @@
 package com.backend.Kata.services;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Map;
@@ -12,4 +13,13 @@ public interface JWTService {
 
     boolean isTokenValid(String token, UserDetails userDetails);
     String generateRefreshToken(Map<String,Object> extraClaims, UserDetails userDetails);
+
+    /**
+     * Verifies the signature and expiry of {@code token} once and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    Claims verify(String token);
+
+    boolean isTokenValid(Claims claims, UserDetails userDetails);
 }
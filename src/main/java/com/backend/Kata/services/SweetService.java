@@ -8,10 +8,16 @@ public interface SweetService {
     SweetResponse createSweet(CreateSweetRequest request);
     List<SweetResponse> getAllSweets();
     List<SweetResponse> searchSweets(SearchSweetRequest request);
+    SweetPage getSweetsPage(String cursor, int limit);
+    SweetPage searchSweetsPage(SearchSweetRequest request, String cursor, int limit);
+    List<SweetSuggestion> suggestSweets(String query, int limit);
     SweetResponse getSweetById(Long id);
-    SweetResponse updateSweet(Long id, UpdateSweetRequest request);
+    SweetResponse updateSweet(Long id, UpdateSweetRequest request, Long expectedVersion);
     void deleteSweet(Long id);
     SweetResponse purchaseSweet(Long id, PurchaseRequest request);
     SweetResponse restockSweet(Long id, RestockRequest request);
+    CheckoutResponse checkout(CheckoutRequest request);
+    BulkOperationResponse deleteSweets(BulkDeleteRequest request);
+    BulkOperationResponse restockSweets(BulkRestockRequest request);
 }
 
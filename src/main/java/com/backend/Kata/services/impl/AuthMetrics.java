@@ -0,0 +1,49 @@
+package com.backend.Kata.services.impl;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code kata.jwt.verification.failures}, tagged with a fixed {@code reason}: expired,
+ * signature, malformed or other. Login latency and throttling are recorded by
+ * {@link PasswordCheckExecutor}.
+ */
+@Component
+public class AuthMetrics {
+
+    private final Counter expired;
+    private final Counter badSignature;
+    private final Counter malformed;
+    private final Counter other;
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.expired = failures(meterRegistry, "expired");
+        this.badSignature = failures(meterRegistry, "signature");
+        this.malformed = failures(meterRegistry, "malformed");
+        this.other = failures(meterRegistry, "other");
+    }
+
+    public void jwtRejected(JwtException ex) {
+        if (ex instanceof ExpiredJwtException) {
+            expired.increment();
+        } else if (ex instanceof SignatureException) {
+            badSignature.increment();
+        } else if (ex instanceof MalformedJwtException) {
+            malformed.increment();
+        } else {
+            other.increment();
+        }
+    }
+
+    private static Counter failures(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("kata.jwt.verification.failures")
+                .description("Bearer tokens rejected by the authentication filter")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
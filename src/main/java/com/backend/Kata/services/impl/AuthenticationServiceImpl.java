@@ -6,12 +6,15 @@ import com.backend.Kata.dto.SignInRequest;
 import com.backend.Kata.dto.SignUpRequest;
 import com.backend.Kata.entities.Role;
 import com.backend.Kata.entities.User;
+import com.backend.Kata.exception.LoginThrottledException;
 import com.backend.Kata.repository.UserRepository;
 import com.backend.Kata.services.AuthenticationService;
 import com.backend.Kata.services.JWTService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -29,6 +32,8 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     private final JWTService jwtService;
 
+    private final PasswordCheckExecutor passwordCheckExecutor;
+
     public User signUp(SignUpRequest signUpRequest) {
         // Check if user already exists
         if (userRepository.findFirstByEmail(signUpRequest.getEmail()).isPresent()) {
@@ -46,9 +51,11 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     }
 
     public JwtAuthenticationResponse signIn(SignInRequest signInRequest) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(signInRequest.getEmail(),
-                signInRequest.getPassword()));
-        var user = userRepository.findFirstByEmail(signInRequest.getEmail()).orElseThrow(() -> new IllegalArgumentException("Email or Password is wrong"));
+        // The provider already loaded the user to check the password; reuse that principal
+        Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+                signInRequest.getEmail(), signInRequest.getPassword()));
+        var user = (User) authentication.getPrincipal();
+        rehashIfOutdated(user, signInRequest.getPassword());
         var token = jwtService.generateToken(user);
         var refreshToken = jwtService.generateRefreshToken(new HashMap<>(), user);
         JwtAuthenticationResponse jwtAuthenticationResponse = new JwtAuthenticationResponse();
@@ -60,10 +67,27 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     }
 
 
+    /**
+     * Moves a hash that predates the current encoder settings onto them while the raw
+     * password is at hand. Skipped under login pressure; the next sign-in tries again.
+     */
+    private void rehashIfOutdated(User user, String rawPassword) {
+        String current = user.getPassword();
+        if (!passwordEncoder.upgradeEncoding(current)) {
+            return;
+        }
+        try {
+            String rehashed = passwordCheckExecutor.run(() -> passwordEncoder.encode(rawPassword));
+            userRepository.updatePasswordHash(user.getId(), current, rehashed);
+        } catch (LoginThrottledException ex) {
+            // keep the old hash for now
+        }
+    }
+
     public JwtAuthenticationResponse refreshToken(RefreshTokenRequest refreshTokenRequest) {
-        String userEmail = jwtService.extractUserName(refreshTokenRequest.getToken());
-        User user = userRepository.findFirstByEmail(userEmail).orElseThrow();
-        if (jwtService.isTokenValid(refreshTokenRequest.getToken(), user)) {
+        Claims claims = jwtService.verify(refreshTokenRequest.getToken());
+        User user = userRepository.findFirstByEmail(claims.getSubject()).orElseThrow();
+        if (jwtService.isTokenValid(claims, user)) {
             var jwt = jwtService.generateToken(user);
 
             JwtAuthenticationResponse jwtAuthenticationResponse = new JwtAuthenticationResponse();
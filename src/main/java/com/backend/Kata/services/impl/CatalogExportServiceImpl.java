@@ -0,0 +1,72 @@
+package com.backend.Kata.services.impl;
+
+import com.backend.Kata.dto.SweetResponse;
+import com.backend.Kata.services.CatalogExportService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streams the whole catalog as NDJSON, one {@link SweetResponse} per line.
+ * <p>
+ * Rows come from a forward-only cursor on a stateless, read-only Hibernate session, so
+ * nothing is kept in a persistence context and each row is written out as soon as it is
+ * read. With MySQL the default fetch size of {@link Integer#MIN_VALUE} makes Connector/J
+ * stream rows instead of buffering the result set, keeping heap use flat.
+ */
+@Service
+public class CatalogExportServiceImpl implements CatalogExportService {
+
+    private static final String EXPORT_QUERY =
+            "SELECT new com.backend.Kata.dto.SweetResponse(s.id, s.name, s.category, s.price, s.quantity, s.version) " +
+            "FROM Sweet s ORDER BY s.id";
+
+    private final SessionFactory sessionFactory;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<WriteBehindSweetService> writeBehindSweetService;
+    private final int fetchSize;
+
+    public CatalogExportServiceImpl(EntityManagerFactory entityManagerFactory,
+                                    ObjectMapper objectMapper,
+                                    ObjectProvider<WriteBehindSweetService> writeBehindSweetService,
+                                    @Value("${kata.export.fetch-size:" + Integer.MIN_VALUE + "}") int fetchSize) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.objectMapper = objectMapper;
+        this.writeBehindSweetService = writeBehindSweetService;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public long exportNdjson(OutputStream out) throws IOException {
+        // Make in-memory stock counts visible to the export
+        writeBehindSweetService.ifAvailable(WriteBehindSweetService::flush);
+
+        long rows = 0;
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.beginTransaction();
+            try (ScrollableResults<SweetResponse> results = session.createQuery(EXPORT_QUERY, SweetResponse.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    out.write(objectMapper.writeValueAsBytes(results.get()));
+                    out.write('\n');
+                    rows++;
+                }
+            } finally {
+                session.getTransaction().rollback();
+            }
+        }
+        out.flush();
+        return rows;
+    }
+}
@@ -0,0 +1,262 @@
+package com.backend.Kata.services.impl;
+
+import com.backend.Kata.dto.CreateSweetRequest;
+import com.backend.Kata.dto.ImportReport;
+import com.backend.Kata.dto.ImportRowError;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.CatalogImportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a supplier catalog from the request body and upserts it by sweet name.
+ * <p>
+ * The body is read one line at a time; only the current batch of
+ * {@code kata.import.batch-size} rows is held in memory. Each batch is written as one
+ * JDBC batch in its own transaction. When a batch is rejected by the database its rows
+ * are retried one by one so the report can name the offending lines.
+ */
+@Slf4j
+@Service
+public class CatalogImportServiceImpl implements CatalogImportService {
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "category", "price", "quantity");
+
+    private final SweetRepository sweetRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ObjectProvider<WriteBehindSweetService> writeBehindSweetService;
+    private final SweetNameIndex sweetNameIndex;
+    private final SweetCache sweetCache;
+    private final InventoryAnalytics inventoryAnalytics;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public CatalogImportServiceImpl(SweetRepository sweetRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    ObjectMapper objectMapper,
+                                    Validator validator,
+                                    ObjectProvider<WriteBehindSweetService> writeBehindSweetService,
+                                    SweetNameIndex sweetNameIndex,
+                                    SweetCache sweetCache,
+                                    InventoryAnalytics inventoryAnalytics,
+                                    @Value("${kata.import.batch-size:500}") int batchSize,
+                                    @Value("${kata.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.sweetRepository = sweetRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.writeBehindSweetService = writeBehindSweetService;
+        this.sweetNameIndex = sweetNameIndex;
+        this.sweetCache = sweetCache;
+        this.inventoryAnalytics = inventoryAnalytics;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public ImportReport importCsv(InputStream body) throws IOException {
+        Run run = new Run();
+        try (BufferedReader reader = reader(body)) {
+            String header = reader.readLine();
+            run.lineNumber++;
+            Map<String, Integer> columns = header == null ? Map.of() : csvColumns(header);
+            if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+                throw new IllegalArgumentException("CSV header must contain columns: " + String.join(",", CSV_COLUMNS));
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                run.lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                run.rowsRead++;
+                try {
+                    List<String> fields = splitCsv(line);
+                    CreateSweetRequest row = new CreateSweetRequest();
+                    row.setName(field(fields, columns, "name"));
+                    row.setCategory(field(fields, columns, "category"));
+                    String price = field(fields, columns, "price");
+                    row.setPrice(price == null || price.isBlank() ? null : new BigDecimal(price.trim()));
+                    String quantity = field(fields, columns, "quantity");
+                    row.setQuantity(quantity == null || quantity.isBlank() ? null : Integer.valueOf(quantity.trim()));
+                    run.accept(row);
+                } catch (RuntimeException ex) {
+                    run.reject(run.lineNumber, "Unparseable row: " + ex.getMessage());
+                }
+            }
+        }
+        return run.finish();
+    }
+
+    @Override
+    public ImportReport importNdjson(InputStream body) throws IOException {
+        Run run = new Run();
+        try (BufferedReader reader = reader(body)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                run.lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                run.rowsRead++;
+                try {
+                    run.accept(objectMapper.readValue(line, CreateSweetRequest.class));
+                } catch (RuntimeException ex) {
+                    run.reject(run.lineNumber, "Unparseable row: " + ex.getMessage());
+                }
+            }
+        }
+        return run.finish();
+    }
+
+    private BufferedReader reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    private Map<String, Integer> csvColumns(String header) {
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        return columns;
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String name) {
+        int index = columns.get(name);
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    /**
+     * Splits one CSV record, honouring double-quoted fields with embedded commas and
+     * {@code ""} escapes. Records spanning several lines are not supported.
+     */
+    private List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    /**
+     * State of one import: the pending batch, counters and the capped error list.
+     */
+    private final class Run {
+        private final long startedAt = System.nanoTime();
+        private final List<Sweet> batch = new ArrayList<>(batchSize);
+        private final List<Long> batchLines = new ArrayList<>(batchSize);
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long lineNumber;
+        private long rowsRead;
+        private long rowsImported;
+        private long rowsFailed;
+
+        void accept(CreateSweetRequest row) {
+            Set<ConstraintViolation<CreateSweetRequest>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                reject(lineNumber, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            batch.add(new Sweet(null, row.getName().trim(), row.getCategory().trim(), row.getPrice(), row.getQuantity()));
+            batchLines.add(lineNumber);
+            if (batch.size() >= batchSize) {
+                writeBatch();
+            }
+        }
+
+        void reject(long line, String message) {
+            rowsFailed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRowError(line, message));
+            }
+        }
+
+        ImportReport finish() {
+            writeBatch();
+            // The JDBC upsert bypasses entity listeners, so refresh what they would maintain
+            writeBehindSweetService.ifAvailable(WriteBehindSweetService::loadStock);
+            if (rowsImported > 0) {
+                sweetNameIndex.reload();
+                inventoryAnalytics.reload();
+                sweetCache.clear();
+            }
+
+            long elapsedNanos = System.nanoTime() - startedAt;
+            double rowsPerSecond = elapsedNanos == 0 ? 0 : rowsImported / (elapsedNanos / 1_000_000_000.0);
+            log.info("Catalog import: {} rows read, {} imported, {} failed, {} rows/s",
+                    rowsRead, rowsImported, rowsFailed, Math.round(rowsPerSecond));
+            return new ImportReport(rowsRead, rowsImported, rowsFailed, elapsedNanos / 1_000_000,
+                    rowsPerSecond, errors, rowsFailed > errors.size());
+        }
+
+        private void writeBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> sweetRepository.upsertByName(batch));
+                rowsImported += batch.size();
+            } catch (RuntimeException batchFailure) {
+                for (int i = 0; i < batch.size(); i++) {
+                    List<Sweet> single = List.of(batch.get(i));
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> sweetRepository.upsertByName(single));
+                        rowsImported++;
+                    } catch (RuntimeException ex) {
+                        reject(batchLines.get(i), "Rejected by database: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                    }
+                }
+            }
+            batch.clear();
+            batchLines.clear();
+        }
+    }
+}
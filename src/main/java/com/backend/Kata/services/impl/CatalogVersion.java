@@ -0,0 +1,51 @@
+package com.backend.Kata.services.impl;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog-wide version that changes whenever any sweet does, used as the strong ETag of
+ * catalog reads so a matching {@code If-None-Match} is answered without a query.
+ * <p>
+ * The counter is in memory and prefixed with a per-process epoch, so a restart never
+ * reissues a tag a client may still hold. Writes that go through the sweet caches move it
+ * from {@link VersionedCatalogCache}, once the cached copies are gone; readers take the tag
+ * before reading data, so a tag never outlives the data it was issued with. Writes the
+ * caches never see {@link #bump()} it themselves, after their transaction commits.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public String etag() {
+        return "\"" + value() + "\"";
+    }
+
+    // Unquoted, for tags that combine it with other validators
+    public String value() {
+        return epoch + "-" + version.get();
+    }
+
+    // Called once the cached catalog is evicted, possibly from another transaction's afterCommit
+    void advance() {
+        version.incrementAndGet();
+    }
+
+    public void bump() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                version.incrementAndGet();
+            }
+        });
+    }
+}
@@ -0,0 +1,501 @@
+package com.backend.Kata.services.impl;
+
+import com.backend.Kata.dto.CategorySales;
+import com.backend.Kata.dto.CategoryStock;
+import com.backend.Kata.dto.HourlySales;
+import com.backend.Kata.dto.InventoryStatsResponse;
+import com.backend.Kata.dto.SalesWindow;
+import com.backend.Kata.dto.SweetResponse;
+import com.backend.Kata.dto.SweetSales;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Running inventory and sales aggregates behind {@code GET /api/v1/admin/stats}, kept
+ * current by the sweet services instead of scanning {@code sweet} or
+ * {@code purchase_ledger} when the dashboard loads.
+ * <p>
+ * Stock per sweet and per category is loaded from {@code sweet} once the application is
+ * ready, then moved by the quantity deltas and field changes the services report. Sales
+ * are counted per sweet and category in hourly buckets, and every window in
+ * {@code kata.analytics.windows} keeps running totals of its own: a sale is added to each,
+ * and when the hour turns the bucket sliding out of a window is subtracted from it. Changes
+ * made in a transaction are applied once it commits, and each new stock level is handed to
+ * {@link StockAlerts}.
+ * <p>
+ * Reads return the last built snapshot while nothing has changed. Otherwise the snapshot
+ * is rebuilt from the running totals, in time proportional to the number of sweets and
+ * categories, never to the number of sales. Categories and each window's sales rankings
+ * are kept in order as they change, in logarithmic time, so a rebuild copies them out
+ * without sorting while it holds the lock.
+ * <p>
+ * Sales since the last checkpoint are added to {@code sweet_sales_hourly} every
+ * {@code kata.analytics.checkpoint-interval} and read back at startup, so a crash loses at
+ * most one interval of dashboard figures; the ledger still has every purchase. Each
+ * instance counts the sales it serves on top of what was checkpointed when it started.
+ * <p>
+ * State is guarded by a {@link ReentrantLock} rather than the monitor, because the loads
+ * hold it across JDBC queries and a blocked monitor would pin a virtual thread.
+ */
+@Slf4j
+@Component
+public class InventoryAnalytics {
+
+    private static final String STOCK_SQL = "SELECT id, name, category, price, quantity FROM sweet";
+    private static final String RESTORE_SQL =
+            "SELECT bucket_start, sweet_id, category, units, revenue FROM sweet_sales_hourly WHERE bucket_start > ?";
+    private static final String CHECKPOINT_SQL =
+            "INSERT INTO sweet_sales_hourly (bucket_start, sweet_id, category, units, revenue) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE units = units + VALUES(units), revenue = revenue + VALUES(revenue)";
+    private static final String EXPIRE_SQL = "DELETE FROM sweet_sales_hourly WHERE bucket_start <= ?";
+    private static final int CHECKPOINT_CHUNK_SIZE = 500;
+    private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockAlerts stockAlerts;
+    private final Clock clock;
+    private final List<Window> windows;
+    private final int retentionHours;
+
+    private final Map<Long, SweetStock> stock = new HashMap<>();
+    private final NavigableMap<String, StockTotals> categories = new TreeMap<>();
+    private final StockTotals inventory = new StockTotals();
+    private final NavigableMap<Long, Bucket> buckets = new TreeMap<>();
+    private final Map<SalesKey, Sales> unsaved = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long hour;
+    private volatile long changes;
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public InventoryAnalytics(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              StockAlerts stockAlerts,
+                              @Value("${kata.analytics.windows:1h,24h,7d}") List<Duration> windows) {
+        this(jdbcTemplate, transactionTemplate, stockAlerts, windows, Clock.systemUTC());
+    }
+
+    public InventoryAnalytics(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              StockAlerts stockAlerts,
+                              List<Duration> windows,
+                              Clock clock) {
+        if (windows.isEmpty()) {
+            throw new IllegalArgumentException("At least one analytics window is required");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stockAlerts = stockAlerts;
+        this.clock = clock;
+        this.windows = windows.stream()
+                .sorted()
+                .distinct()
+                .map(window -> {
+                    if (window.toHours() < 1 || !window.equals(Duration.ofHours(window.toHours()))) {
+                        throw new IllegalArgumentException("Analytics windows must be whole hours: " + window);
+                    }
+                    return new Window((int) window.toHours());
+                })
+                .toList();
+        this.retentionHours = this.windows.get(this.windows.size() - 1).hours;
+        this.hour = currentHour();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.lock();
+        try {
+            reloadStock();
+            long[] rows = {0};
+            jdbcTemplate.query(RESTORE_SQL, rs -> {
+                long bucket = Math.floorDiv(rs.getTimestamp(1).getTime(), HOUR_MILLIS);
+                addSales(new SalesKey(bucket, rs.getLong(2), rs.getString(3)), rs.getLong(4), rs.getBigDecimal(5));
+                rows[0]++;
+            }, hourStart(hour - retentionHours));
+            changes++;
+            log.info("Inventory analytics loaded {} sweets and {} hourly sales rows", stock.size(), rows[0]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reloads stock from {@code sweet}, for writes that bypass the services such as a
+     * catalog import. Sales are kept.
+     */
+    public void reload() {
+        lock.lock();
+        try {
+            reloadStock();
+            changes++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A sweet was created or updated: its fields are taken from {@code sweet} and its
+     * stock moved by {@code quantityDelta}, the whole quantity for a new sweet.
+     */
+    public void saved(SweetResponse sweet, int quantityDelta) {
+        Long id = sweet.getId();
+        String name = sweet.getName();
+        String category = sweet.getCategory();
+        BigDecimal price = sweet.getPrice();
+        afterCommit(() -> update(id, name, category, price, quantityDelta));
+    }
+
+    public void sold(Long sweetId, String category, int quantity, BigDecimal unitPrice) {
+        afterCommit(() -> {
+            if (stock.containsKey(sweetId)) {
+                update(sweetId, null, null, null, -quantity);
+            }
+            BigDecimal revenue = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            SalesKey key = new SalesKey(hour, sweetId, category);
+            addSales(key, quantity, revenue);
+            unsaved.computeIfAbsent(key, k -> new Sales()).add(quantity, revenue);
+        });
+    }
+
+    public void restocked(Map<Long, Integer> quantities) {
+        afterCommit(() -> quantities.forEach((id, quantity) -> {
+            if (stock.containsKey(id)) {
+                update(id, null, null, null, quantity);
+            }
+        }));
+    }
+
+    public void removed(Collection<Long> ids) {
+        afterCommit(() -> {
+            for (Long id : ids) {
+                SweetStock previous = stock.remove(id);
+                if (previous != null) {
+                    contribute(previous, -1);
+                }
+                stockAlerts.forget(id);
+            }
+        });
+    }
+
+    public InventoryStatsResponse stats() {
+        long now = currentHour();
+        Snapshot current = snapshot;
+        if (current != null && current.changes() == changes && current.hour() == now) {
+            return current.response();
+        }
+        lock.lock();
+        try {
+            advance(now);
+            current = snapshot;
+            // Another reader may have rebuilt it while this one waited for the lock
+            if (current == null || current.changes() != changes || current.hour() != hour) {
+                current = new Snapshot(changes, hour, build());
+                snapshot = current;
+            }
+            return current.response();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the sales counted since the last run to {@code sweet_sales_hourly} in one
+     * transaction and deletes hours older than the longest window. The deltas are taken
+     * out before the write and added back if it fails, so they are retried next run.
+     */
+    @Scheduled(fixedDelayString = "${kata.analytics.checkpoint-interval:1m}")
+    public void checkpoint() {
+        Map<SalesKey, Sales> batch;
+        long expiredHour;
+        lock.lock();
+        try {
+            if (unsaved.isEmpty()) {
+                return;
+            }
+            batch = new HashMap<>(unsaved);
+            unsaved.clear();
+            expiredHour = hour - retentionHours;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(CHECKPOINT_SQL, batch.entrySet(), CHECKPOINT_CHUNK_SIZE, (ps, entry) -> {
+                    ps.setTimestamp(1, hourStart(entry.getKey().hour()));
+                    ps.setLong(2, entry.getKey().sweetId());
+                    ps.setString(3, entry.getKey().category());
+                    ps.setLong(4, entry.getValue().units);
+                    ps.setBigDecimal(5, entry.getValue().revenue);
+                });
+                jdbcTemplate.update(EXPIRE_SQL, hourStart(expiredHour));
+            });
+        } catch (RuntimeException ex) {
+            lock.lock();
+            try {
+                batch.forEach((key, sales) -> unsaved.computeIfAbsent(key, k -> new Sales()).add(sales.units, sales.revenue));
+            } finally {
+                lock.unlock();
+            }
+            log.warn("Sales checkpoint of {} hourly rows failed, will retry", batch.size(), ex);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        checkpoint();
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private void apply(Runnable change) {
+        lock.lock();
+        try {
+            advance(currentHour());
+            change.run();
+            changes++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reloadStock() {
+        stock.clear();
+        categories.clear();
+        inventory.clear();
+        jdbcTemplate.query(STOCK_SQL, rs -> {
+            update(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4), rs.getInt(5));
+        });
+    }
+
+    // Null fields keep their current value; an unknown sweet starts from zero stock
+    private void update(Long id, String name, String category, BigDecimal price, int quantityDelta) {
+        SweetStock previous = stock.get(id);
+        SweetStock next;
+        if (previous == null) {
+            next = new SweetStock(name, category, price, quantityDelta);
+        } else {
+            contribute(previous, -1);
+            next = new SweetStock(
+                    name != null ? name : previous.name(),
+                    category != null ? category : previous.category(),
+                    price != null ? price : previous.price(),
+                    previous.quantity() + quantityDelta);
+        }
+        stock.put(id, next);
+        contribute(next, 1);
+        stockAlerts.stockChanged(id, next.name(), next.category(), next.quantity());
+    }
+
+    private void contribute(SweetStock sweet, int sign) {
+        StockTotals totals = categories.computeIfAbsent(sweet.category(), key -> new StockTotals());
+        totals.add(sweet, sign);
+        inventory.add(sweet, sign);
+        if (totals.sweets == 0) {
+            categories.remove(sweet.category());
+        }
+    }
+
+    private void addSales(SalesKey key, long units, BigDecimal revenue) {
+        buckets.computeIfAbsent(key.hour(), h -> new Bucket()).add(key, units, revenue);
+        for (Window window : windows) {
+            if (key.hour() > hour - window.hours) {
+                window.add(key, units, revenue);
+            }
+        }
+    }
+
+    // Subtracts the buckets that slid out of each window and forgets those past the longest
+    private void advance(long now) {
+        if (now <= hour) {
+            return;
+        }
+        for (Window window : windows) {
+            for (Bucket expired : buckets.subMap(hour - window.hours, false, now - window.hours, true).values()) {
+                expired.sales.forEach((key, sales) -> window.add(key, -sales.units, sales.revenue.negate()));
+            }
+        }
+        buckets.headMap(now - retentionHours, true).clear();
+        hour = now;
+        changes++;
+    }
+
+    private InventoryStatsResponse build() {
+        List<CategoryStock> categoryStock = categories.entrySet().stream()
+                .map(entry -> new CategoryStock(entry.getKey(), entry.getValue().sweets,
+                        entry.getValue().units, entry.getValue().value))
+                .toList();
+        List<SalesWindow> sales = windows.stream()
+                .map(this::toSalesWindow)
+                .toList();
+        // Hours without sales have no bucket and are left out
+        List<HourlySales> hourly = buckets.entrySet().stream()
+                .map(entry -> new HourlySales(hourStart(entry.getKey()).toInstant(),
+                        entry.getValue().total.units, entry.getValue().total.revenue))
+                .toList();
+        return new InventoryStatsResponse(clock.instant(), inventory.sweets, inventory.units, inventory.value,
+                categoryStock, sales, hourly);
+    }
+
+    private SalesWindow toSalesWindow(Window window) {
+        List<CategorySales> byCategory = window.byCategory.ranked.stream()
+                .map(sales -> new CategorySales(sales.key(), sales.units(), sales.revenue()))
+                .toList();
+        List<SweetSales> bySweet = window.bySweet.ranked.stream()
+                .map(sales -> {
+                    SweetStock sweet = stock.get(sales.key());
+                    return new SweetSales(sales.key(), sweet != null ? sweet.name() : null,
+                            sales.units(), sales.revenue());
+                })
+                .toList();
+        return new SalesWindow(window.hours, window.total.units, window.total.revenue, byCategory, bySweet);
+    }
+
+    private long currentHour() {
+        return Math.floorDiv(clock.millis(), HOUR_MILLIS);
+    }
+
+    private static Timestamp hourStart(long hour) {
+        return Timestamp.from(Instant.ofEpochMilli(hour * HOUR_MILLIS));
+    }
+
+    private record SweetStock(String name, String category, BigDecimal price, long quantity) {
+
+        BigDecimal value() {
+            return price.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    private record SalesKey(long hour, Long sweetId, String category) {
+    }
+
+    private record Snapshot(long changes, long hour, InventoryStatsResponse response) {
+    }
+
+    private static final class StockTotals {
+        private long sweets;
+        private long units;
+        private BigDecimal value = BigDecimal.ZERO;
+
+        void add(SweetStock sweet, int sign) {
+            sweets += sign;
+            units += sign * sweet.quantity();
+            value = sign > 0 ? value.add(sweet.value()) : value.subtract(sweet.value());
+        }
+
+        void clear() {
+            sweets = 0;
+            units = 0;
+            value = BigDecimal.ZERO;
+        }
+    }
+
+    private static final class Sales {
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        void add(long units, BigDecimal revenue) {
+            this.units += units;
+            this.revenue = this.revenue.add(revenue);
+        }
+    }
+
+    private static final class Bucket {
+        private final Map<SalesKey, Sales> sales = new HashMap<>();
+        private final Sales total = new Sales();
+
+        void add(SalesKey key, long units, BigDecimal revenue) {
+            sales.computeIfAbsent(key, k -> new Sales()).add(units, revenue);
+            total.add(units, revenue);
+        }
+    }
+
+    private static final class Window {
+        private final int hours;
+        private final Ranking<Long> bySweet = new Ranking<>();
+        private final Ranking<String> byCategory = new Ranking<>();
+        private final Sales total = new Sales();
+
+        private Window(int hours) {
+            this.hours = hours;
+        }
+
+        void add(SalesKey key, long units, BigDecimal revenue) {
+            bySweet.add(key.sweetId(), units, revenue);
+            byCategory.add(key.category(), units, revenue);
+            total.add(units, revenue);
+        }
+    }
+
+    /**
+     * Sales totals per key, also held in a set ordered by revenue, highest first, then by
+     * key. A total is taken out of the set and put back with each change, since the set
+     * cannot see its order change in place.
+     */
+    private static final class Ranking<K extends Comparable<K>> {
+        private final Map<K, RankedSales<K>> totals = new HashMap<>();
+        private final NavigableSet<RankedSales<K>> ranked = new TreeSet<>(
+                Comparator.comparing(RankedSales<K>::revenue, Comparator.reverseOrder())
+                        .thenComparing(RankedSales::key));
+
+        // Entries that drop back to zero are removed so sweets sold long ago do not pile up
+        void add(K key, long units, BigDecimal revenue) {
+            RankedSales<K> previous = totals.get(key);
+            RankedSales<K> next;
+            if (previous == null) {
+                next = new RankedSales<>(key, units, revenue);
+            } else {
+                ranked.remove(previous);
+                next = new RankedSales<>(key, previous.units() + units, previous.revenue().add(revenue));
+            }
+            if (next.units() == 0 && next.revenue().signum() == 0) {
+                totals.remove(key);
+                return;
+            }
+            totals.put(key, next);
+            ranked.add(next);
+        }
+    }
+
+    private record RankedSales<K>(K key, long units, BigDecimal revenue) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.backend.Kata.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stock-path counters, registered once so the hot paths only increment a field. Tags are
+ * fixed outcome names; sweet ids are never used as tags.
+ * <ul>
+ *     <li>{@code kata.inventory.purchases} by {@code outcome}: success,
+ *     insufficient_stock, not_found</li>
+ *     <li>{@code kata.inventory.checkouts} by {@code outcome}: success, rejected</li>
+ *     <li>{@code kata.inventory.contention.retries}: lost compare-and-set rounds on the
+ *     write-behind stock counters, and sweet updates retried after a version conflict</li>
+ *     <li>{@code kata.inventory.flush.failures}: write-behind flushes that failed, their journal kept for retry</li>
+ *     <li>{@code kata.inventory.stock.alerts} by {@code outcome}: sent, debounced</li>
+ * </ul>
+ */
+@Component
+public class InventoryMetrics {
+
+    private final Counter purchased;
+    private final Counter insufficientStock;
+    private final Counter notFound;
+    private final Counter checkedOut;
+    private final Counter checkoutRejected;
+    private final Counter contentionRetries;
+    private final Counter flushFailures;
+    private final Counter stockAlertsSent;
+    private final Counter stockAlertsDebounced;
+
+    public InventoryMetrics(MeterRegistry meterRegistry) {
+        this.purchased = purchases(meterRegistry, "success");
+        this.insufficientStock = purchases(meterRegistry, "insufficient_stock");
+        this.notFound = purchases(meterRegistry, "not_found");
+        this.checkedOut = checkouts(meterRegistry, "success");
+        this.checkoutRejected = checkouts(meterRegistry, "rejected");
+        this.contentionRetries = Counter.builder("kata.inventory.contention.retries")
+                .description("Stock updates retried after losing a race with another update")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("kata.inventory.flush.failures")
+                .description("Write-behind flushes that failed and were kept for the next run")
+                .register(meterRegistry);
+        this.stockAlertsSent = stockAlerts(meterRegistry, "sent");
+        this.stockAlertsDebounced = stockAlerts(meterRegistry, "debounced");
+    }
+
+    public void purchaseSucceeded() {
+        purchased.increment();
+    }
+
+    public void purchaseInsufficientStock() {
+        insufficientStock.increment();
+    }
+
+    public void purchaseNotFound() {
+        notFound.increment();
+    }
+
+    public void checkout(boolean success) {
+        (success ? checkedOut : checkoutRejected).increment();
+    }
+
+    public void contentionRetry() {
+        contentionRetries.increment();
+    }
+
+    public void flushFailed() {
+        flushFailures.increment();
+    }
+
+    public void stockAlert(boolean sent) {
+        (sent ? stockAlertsSent : stockAlertsDebounced).increment();
+    }
+
+    private static Counter purchases(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("kata.inventory.purchases")
+                .description("Single-sweet purchases by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter checkouts(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("kata.inventory.checkouts")
+                .description("Cart checkouts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter stockAlerts(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("kata.inventory.stock.alerts")
+                .description("Low-stock alerts pushed to admins, or held back by the debounce")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -1,26 +1,75 @@
 package com.backend.Kata.services.impl;
 
 
+import com.backend.Kata.entities.User;
 import com.backend.Kata.services.JWTService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Issues and verifies HS256 tokens.
+ * <p>
+ * The signing key and parser are built once. Verified claims are kept in a bounded cache
+ * keyed by the SHA-256 of the token, and each entry expires at the token's own
+ * {@code exp}, so a repeated token costs a hash instead of a signature check.
+ */
 @Service
 public class JWTServiceImpl implements JWTService {
 
+    public static final String AUTHORITIES_CLAIM = "authorities";
+    public static final String VERSION_CLAIM = "ver";
+
+    private static final String SIGNING_KEY = "413F4428472B4B6250655368566D5970337336763979244226452948404D6351";
+
+    private final SecretKey signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SIGNING_KEY));
+    private final JwtParser parser = Jwts.parser().verifyWith(signingKey).build();
+    private final Cache<String, Claims> verified;
+
+    public JWTServiceImpl(@Value("${kata.jwt.verified-cache-size:10000}") long verifiedCacheSize) {
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        long millis = expiration == null ? 0 : expiration.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     @Override
     public String extractUserName(String token) {
@@ -35,10 +84,11 @@ public class JWTServiceImpl implements JWTService {
         
         return Jwts.builder()
                 .setSubject(userDetails.getUsername())
-                .claim("authorities", authorities)
+                .claim(AUTHORITIES_CLAIM, authorities)
+                .claim(VERSION_CLAIM, userDetails instanceof User user ? user.getVersion() : null)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 24))
-                .signWith(getSiginKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -46,35 +96,45 @@ public class JWTServiceImpl implements JWTService {
         return Jwts.builder().setClaims(extraClaims).setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + 604800000))
-                .signWith(getSiginKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolvers) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolvers.apply(claims);
-    }
-
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(getSiginKey()).build().parseClaimsJws(token).getBody();
+    @Override
+    public Claims verify(String token) {
+        String key = hash(token);
+        Claims claims = verified.getIfPresent(key);
+        if (claims == null || isTokenExpired(claims)) {
+            // Parsing also rejects expired tokens, so only live claims are cached
+            claims = parser.parseSignedClaims(token).getPayload();
+            verified.put(key, claims);
+        }
+        return claims;
     }
 
-    private Key getSiginKey() {
-        byte[] key = Decoders.BASE64.decode("413F4428472B4B6250655368566D5970337336763979244226452948404D6351");
-        return Keys.hmacShaKeyFor(key);
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(verify(token), userDetails);
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
+    @Override
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
+    }
 
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -0,0 +1,113 @@
+package com.backend.Kata.services.impl;
+
+import com.backend.Kata.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt password checks on a small dedicated pool so a login spike cannot take
+ * CPU from the rest of the API.
+ * <p>
+ * The pool has {@code kata.login.threads} threads and a queue of
+ * {@code kata.login.queue-capacity}; when both are full the check is refused at once with
+ * {@link LoginThrottledException}. A check that has not finished within
+ * {@code kata.login.check-timeout}, wait included, is cancelled and refused the same way,
+ * so a stalled pool cannot hold request threads. Queue depth, check latency including the
+ * wait, rejections and timeouts are published as {@code kata.login.*} metrics.
+ */
+@Component
+public class PasswordCheckExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+    private final Duration checkTimeout;
+    private final Timer latency;
+    private final Counter rejected;
+    private final Counter timedOut;
+
+    public PasswordCheckExecutor(MeterRegistry meterRegistry,
+                                 @Value("${kata.login.threads:2}") int threads,
+                                 @Value("${kata.login.queue-capacity:64}") int queueCapacity,
+                                 @Value("${kata.login.retry-after:1s}") Duration retryAfter,
+                                 @Value("${kata.login.check-timeout:5s}") Duration checkTimeout) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-check-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfter = retryAfter;
+        this.checkTimeout = checkTimeout;
+        this.latency = Timer.builder("kata.login.latency")
+                .description("Password check time, including the wait for a free thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("kata.login.rejected")
+                .description("Password checks refused because the queue was full")
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("kata.login.timeouts")
+                .description("Password checks cancelled after kata.login.check-timeout")
+                .register(meterRegistry);
+        Gauge.builder("kata.login.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password checks waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code check} on the pool and waits for its result.
+     *
+     * @throws LoginThrottledException if the pool and queue are full, or the check did not
+     *                                 finish within the timeout
+     */
+    public <T> T run(Callable<T> check) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(check);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new LoginThrottledException(retryAfter);
+        }
+        try {
+            return future.get(checkTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new LoginThrottledException(retryAfter);
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking password", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,215 @@
+package com.backend.Kata.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-purchase history in {@code purchase_ledger}, written off the request path.
+ * <p>
+ * Records go into a bounded ring buffer ({@link ArrayBlockingQueue} of
+ * {@code kata.ledger.capacity}) and a single writer thread inserts whatever has piled up,
+ * up to {@code kata.ledger.batch-size} rows, as one JDBC batch; with
+ * {@code rewriteBatchedStatements} Connector/J sends it as one multi-row INSERT. Purchases
+ * made in a transaction are queued once it commits, so a rolled-back purchase leaves no
+ * record and the purchase itself commits nothing extra.
+ * <p>
+ * When the buffer is full the purchasing thread waits up to
+ * {@code kata.ledger.offer-timeout} and then inserts its own record: a slow database slows
+ * purchases down rather than losing history. Every insert runs in a transaction of its
+ * own, so a batch is written whole or not at all, and the caller's does not ride on the
+ * purchase's connection, which is still bound after commit but no longer commits. On
+ * shutdown the writer drains the buffer before the pool closes.
+ */
+@Slf4j
+@Component
+public class PurchaseLedger {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO purchase_ledger (purchased_at, user_email, sweet_id, quantity, unit_price) VALUES (?, ?, ?, ?, ?)";
+    private static final long POLL_MILLIS = 200;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private final BlockingQueue<PurchaseRecord> buffer;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final Thread writer;
+    private final Counter writtenByWriter;
+    private final Counter writtenByCaller;
+    private final Counter failures;
+
+    private volatile boolean running = true;
+
+    public PurchaseLedger(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${kata.ledger.capacity:8192}") int capacity,
+                          @Value("${kata.ledger.batch-size:500}") int batchSize,
+                          @Value("${kata.ledger.offer-timeout:50ms}") Duration offerTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.writer = new Thread(this::drain, "purchase-ledger-writer");
+        this.writer.setDaemon(true);
+        this.writtenByWriter = records(meterRegistry, "writer");
+        this.writtenByCaller = records(meterRegistry, "caller");
+        this.failures = Counter.builder("kata.ledger.failures")
+                .description("Ledger records that could not be written and were dropped")
+                .register(meterRegistry);
+        Gauge.builder("kata.ledger.queue.depth", buffer, BlockingQueue::size)
+                .description("Ledger records waiting for the writer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Stops the writer once it has emptied the buffer, then writes anything queued after
+     * it stopped.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        List<PurchaseRecord> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest, writtenByCaller);
+        }
+    }
+
+    /**
+     * Records a purchase by the current user. Inside a transaction the record is queued
+     * after commit; outside one it is queued at once.
+     */
+    public void record(Long sweetId, int quantity, BigDecimal unitPrice) {
+        PurchaseRecord record = new PurchaseRecord(Instant.now(), currentUser(), sweetId, quantity, unitPrice);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(record);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(record);
+            }
+        });
+    }
+
+    private void enqueue(PurchaseRecord record) {
+        try {
+            if (running && buffer.offer(record, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // Full, or shutting down: the caller pays for its own insert
+        write(List.of(record), writtenByCaller);
+    }
+
+    private void drain() {
+        List<PurchaseRecord> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PurchaseRecord first = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeWithRetry(List<PurchaseRecord> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ownTransaction.executeWithoutResult(status -> insert(batch));
+                writtenByWriter.increment(batch.size());
+                return;
+            } catch (RuntimeException ex) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    failures.increment(batch.size());
+                    log.error("Purchase ledger dropped {} records after {} attempts", batch.size(), attempt, ex);
+                    return;
+                }
+                log.warn("Purchase ledger batch of {} records failed, retrying", batch.size(), ex);
+                Thread.sleep(POLL_MILLIS * attempt);
+            }
+        }
+    }
+
+    private void write(List<PurchaseRecord> records, Counter written) {
+        try {
+            ownTransaction.executeWithoutResult(status -> insert(records));
+            written.increment(records.size());
+        } catch (RuntimeException ex) {
+            failures.increment(records.size());
+            log.error("Purchase ledger dropped {} records", records.size(), ex);
+        }
+    }
+
+    private void insert(List<PurchaseRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (ps, record) -> {
+            ps.setTimestamp(1, Timestamp.from(record.purchasedAt()));
+            ps.setString(2, record.userEmail());
+            ps.setLong(3, record.sweetId());
+            ps.setInt(4, record.quantity());
+            ps.setBigDecimal(5, record.unitPrice());
+        });
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private static Counter records(MeterRegistry meterRegistry, String path) {
+        return Counter.builder("kata.ledger.records")
+                .description("Ledger records written, by the background writer or by a caller facing a full buffer")
+                .tag("path", path)
+                .register(meterRegistry);
+    }
+
+    private record PurchaseRecord(Instant purchasedAt, String userEmail, Long sweetId, int quantity,
+                                  BigDecimal unitPrice) {
+    }
+}
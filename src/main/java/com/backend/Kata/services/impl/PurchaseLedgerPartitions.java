@@ -0,0 +1,92 @@
+package com.backend.Kata.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of {@code purchase_ledger} rolling on MySQL: the next
+ * {@code kata.ledger.partitions-ahead} months are split out of {@code pmax} before rows
+ * arrive, and months older than {@code kata.ledger.retention-months} are dropped, which
+ * removes their rows without scanning or logging them one by one.
+ * <p>
+ * Runs at startup and daily. Failures are logged and retried on the next run; the
+ * {@code pmax} catch-all means inserts never depend on this job.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "kata.ledger.partition-maintenance.enabled", havingValue = "true")
+public class PurchaseLedgerPartitions {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final String PARTITIONS_SQL =
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'purchase_ledger' AND PARTITION_NAME <> 'pmax' " +
+            "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public PurchaseLedgerPartitions(JdbcTemplate jdbcTemplate,
+                                    @Value("${kata.ledger.partitions-ahead:3}") int monthsAhead,
+                                    @Value("${kata.ledger.retention-months:24}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${kata.ledger.partition-maintenance.cron:0 30 3 * * *}")
+    public void maintain() {
+        try {
+            List<YearMonth> months = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class).stream()
+                    .map(name -> YearMonth.parse(name, PARTITION_NAME))
+                    .toList();
+            YearMonth now = YearMonth.now();
+            addMonths(months.isEmpty() ? now.minusMonths(1) : months.get(months.size() - 1), now.plusMonths(monthsAhead));
+            dropBefore(months, now.minusMonths(retentionMonths));
+        } catch (RuntimeException ex) {
+            log.warn("Purchase ledger partition maintenance failed, will retry on the next run", ex);
+        }
+    }
+
+    // Splitting pmax only moves rows when the job has fallen behind; normally it is empty
+    private void addMonths(YearMonth last, YearMonth until) {
+        List<String> partitions = new ArrayList<>();
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(until); month = month.plusMonths(1)) {
+            partitions.add("PARTITION " + month.format(PARTITION_NAME)
+                    + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+        if (partitions.isEmpty()) {
+            return;
+        }
+        partitions.add("PARTITION pmax VALUES LESS THAN (MAXVALUE)");
+        jdbcTemplate.execute("ALTER TABLE purchase_ledger REORGANIZE PARTITION pmax INTO ("
+                + String.join(", ", partitions) + ")");
+        log.info("Purchase ledger partitions added through {}", until);
+    }
+
+    private void dropBefore(List<YearMonth> months, YearMonth oldest) {
+        List<String> expired = months.stream()
+                .filter(month -> month.isBefore(oldest))
+                .map(month -> month.format(PARTITION_NAME))
+                .toList();
+        // A partitioned table must keep at least one partition; pmax always remains
+        if (!expired.isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE purchase_ledger DROP PARTITION " + String.join(", ", expired));
+            log.info("Purchase ledger partitions dropped: {}", expired);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.backend.Kata.services.impl;
+
+import com.backend.Kata.dto.ReorderThresholdsResponse;
+import com.backend.Kata.dto.StockAlert;
+import com.backend.Kata.dto.StockAlert.Level;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Low-stock alerts pushed to admin clients over server-sent events.
+ * <p>
+ * {@link InventoryAnalytics} reports every stock change it applies, so thresholds are
+ * checked per change rather than by a periodic scan of {@code sweet}. A sweet's threshold is its own,
+ * else its category's, else {@code kata.stock-alerts.default-threshold}; at or below it the
+ * sweet is LOW, at zero OUT_OF_STOCK.
+ * <p>
+ * Alerts fire when a sweet gets worse, not on every purchase while it stays low. A sweet
+ * that recovers and drops again repeats an alert of the same level at most once per
+ * {@code kata.stock-alerts.debounce}, so stock hovering at the threshold sends one alert;
+ * running out always gets through. Pushes happen on a single background thread, never on
+ * the purchasing request.
+ */
+@Slf4j
+@Component
+public class StockAlerts {
+
+    private static final String EVENT_NAME = "stock-alert";
+    private static final String SWEET_THRESHOLDS_SQL = "SELECT sweet_id, threshold FROM sweet_reorder_threshold";
+    private static final String CATEGORY_THRESHOLDS_SQL = "SELECT category, threshold FROM category_reorder_threshold";
+    private static final String UPSERT_SWEET_SQL =
+            "INSERT INTO sweet_reorder_threshold (sweet_id, threshold) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE threshold = VALUES(threshold)";
+    private static final String UPSERT_CATEGORY_SQL =
+            "INSERT INTO category_reorder_threshold (category, threshold) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE threshold = VALUES(threshold)";
+    private static final String DELETE_SWEET_SQL = "DELETE FROM sweet_reorder_threshold WHERE sweet_id = ?";
+    private static final String DELETE_CATEGORY_SQL = "DELETE FROM category_reorder_threshold WHERE category = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryMetrics inventoryMetrics;
+    private final int defaultThreshold;
+    private final Duration debounce;
+    private final Duration streamTimeout;
+
+    private final Map<Long, Integer> sweetThresholds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> categoryThresholds = new ConcurrentHashMap<>();
+    private final Map<Long, Watch> watches = new HashMap<>();
+    private final Map<Long, StockAlert> active = new ConcurrentHashMap<>();
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ExecutorService pusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-alert-push");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockAlerts(JdbcTemplate jdbcTemplate,
+                       InventoryMetrics inventoryMetrics,
+                       @Value("${kata.stock-alerts.default-threshold:5}") int defaultThreshold,
+                       @Value("${kata.stock-alerts.debounce:15m}") Duration debounce,
+                       @Value("${kata.stock-alerts.stream-timeout:30m}") Duration streamTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inventoryMetrics = inventoryMetrics;
+        this.defaultThreshold = defaultThreshold;
+        this.debounce = debounce;
+        this.streamTimeout = streamTimeout;
+    }
+
+    // Before InventoryAnalytics loads stock, so the first evaluation already sees them
+    @PostConstruct
+    public void loadThresholds() {
+        jdbcTemplate.query(SWEET_THRESHOLDS_SQL, rs -> {
+            sweetThresholds.put(rs.getLong(1), rs.getInt(2));
+        });
+        jdbcTemplate.query(CATEGORY_THRESHOLDS_SQL, rs -> {
+            categoryThresholds.put(rs.getString(1), rs.getInt(2));
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pusher.shutdown();
+        subscribers.forEach(SseEmitter::complete);
+    }
+
+    /**
+     * Records the current stock of a sweet and alerts if it crossed into a worse level.
+     */
+    public void stockChanged(Long sweetId, String name, String category, long quantity) {
+        lock.lock();
+        try {
+            Watch watch = watches.computeIfAbsent(sweetId, id -> new Watch());
+            watch.name = name;
+            watch.category = category;
+            watch.quantity = quantity;
+            check(sweetId, watch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void forget(Long sweetId) {
+        lock.lock();
+        try {
+            watches.remove(sweetId);
+            active.remove(sweetId);
+            // The row went with the sweet through ON DELETE CASCADE
+            sweetThresholds.remove(sweetId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sweets currently at or below their threshold, out of stock first.
+     */
+    public List<StockAlert> activeAlerts() {
+        return active.values().stream()
+                .sorted(Comparator.comparing(StockAlert::getLevel).reversed()
+                        .thenComparingLong(StockAlert::getQuantity)
+                        .thenComparing(StockAlert::getSweetId))
+                .toList();
+    }
+
+    /**
+     * Opens a stream of {@code stock-alert} events, starting with the alerts active now.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        List<StockAlert> current = activeAlerts();
+        pusher.execute(() -> current.forEach(alert -> send(emitter, alert)));
+        return emitter;
+    }
+
+    public ReorderThresholdsResponse thresholds() {
+        return new ReorderThresholdsResponse(defaultThreshold, new TreeMap<>(sweetThresholds),
+                new TreeMap<>(categoryThresholds));
+    }
+
+    /**
+     * Sets or, with a null threshold, clears the threshold of one sweet and re-checks it.
+     */
+    public void setSweetThreshold(Long sweetId, Integer threshold) {
+        if (threshold == null) {
+            jdbcTemplate.update(DELETE_SWEET_SQL, sweetId);
+        } else {
+            try {
+                jdbcTemplate.update(UPSERT_SWEET_SQL, sweetId, threshold);
+            } catch (DataIntegrityViolationException ex) {
+                throw new RuntimeException("Sweet not found with id: " + sweetId);
+            }
+        }
+        lock.lock();
+        try {
+            if (threshold == null) {
+                sweetThresholds.remove(sweetId);
+            } else {
+                sweetThresholds.put(sweetId, threshold);
+            }
+            Watch watch = watches.get(sweetId);
+            if (watch != null) {
+                check(sweetId, watch);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets or clears a category threshold and re-checks the sweets it applies to.
+     */
+    public void setCategoryThreshold(String category, Integer threshold) {
+        if (threshold == null) {
+            jdbcTemplate.update(DELETE_CATEGORY_SQL, category);
+        } else {
+            jdbcTemplate.update(UPSERT_CATEGORY_SQL, category, threshold);
+        }
+        lock.lock();
+        try {
+            if (threshold == null) {
+                categoryThresholds.remove(category);
+            } else {
+                categoryThresholds.put(category, threshold);
+            }
+            watches.forEach((id, watch) -> {
+                if (category.equals(watch.category) && !sweetThresholds.containsKey(id)) {
+                    check(id, watch);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void check(Long sweetId, Watch watch) {
+        int threshold = sweetThresholds.getOrDefault(sweetId,
+                categoryThresholds.getOrDefault(watch.category, defaultThreshold));
+        Level level = watch.quantity <= 0 ? Level.OUT_OF_STOCK
+                : watch.quantity <= threshold ? Level.LOW
+                : Level.OK;
+        Level previous = watch.level;
+        Instant now = Instant.now();
+        if (level != previous) {
+            watch.level = level;
+            watch.since = now;
+        }
+
+        StockAlert alert = new StockAlert(sweetId, watch.name, watch.category, watch.quantity, threshold, level,
+                watch.since);
+        if (level == Level.OK) {
+            active.remove(sweetId);
+            return;
+        }
+        active.put(sweetId, alert);
+        if (level.compareTo(previous) <= 0) {
+            return;
+        }
+        // Running out is never held back, however recently it was last reported
+        if (level != Level.OUT_OF_STOCK && watch.alerted != null && level.compareTo(watch.alerted) <= 0
+                && watch.alertedAt.plus(debounce).isAfter(now)) {
+            inventoryMetrics.stockAlert(false);
+            return;
+        }
+        watch.alerted = level;
+        watch.alertedAt = now;
+        inventoryMetrics.stockAlert(true);
+        pusher.execute(() -> subscribers.forEach(emitter -> send(emitter, alert)));
+    }
+
+    private void send(SseEmitter emitter, StockAlert alert) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(alert));
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away; the container completes the emitter
+            subscribers.remove(emitter);
+            log.debug("Dropped stock alert subscriber", ex);
+        }
+    }
+
+    private static final class Watch {
+        private String name;
+        private String category;
+        private long quantity;
+        private Level level = Level.OK;
+        private Instant since;
+        private Level alerted;
+        private Instant alertedAt;
+    }
+}
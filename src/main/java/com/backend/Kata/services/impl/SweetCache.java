@@ -0,0 +1,70 @@
+package com.backend.Kata.services.impl;
+
+import com.backend.Kata.dto.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Names of the sweet caches and the invalidation that cannot be expressed with cache
+ * annotations: several ids at once, or everything after a write that bypassed JPA.
+ * <p>
+ * {@link #SWEETS} holds one {@link com.backend.Kata.dto.SweetResponse} per id and
+ * {@link #CATALOG} the full listing under a single key.
+ */
+@Component
+@RequiredArgsConstructor
+public class SweetCache {
+
+    public static final String SWEETS = "sweets";
+    public static final String CATALOG = "sweetCatalog";
+
+    private final CacheManager cacheManager;
+
+    public void evict(Collection<Long> ids) {
+        Cache sweets = cacheManager.getCache(SWEETS);
+        if (sweets != null) {
+            ids.forEach(sweets::evict);
+        }
+        clear(CATALOG);
+    }
+
+    public void clear() {
+        clear(SWEETS);
+        clear(CATALOG);
+    }
+
+    public List<CacheStatsResponse> stats() {
+        List<CacheStatsResponse> stats = new ArrayList<>();
+        for (String name : List.of(SWEETS, CATALOG)) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (cache instanceof VersionedCatalogCache versioned) {
+                cache = versioned.getTargetCache();
+            }
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats s = caffeineCache.getNativeCache().stats();
+                stats.add(new CacheStatsResponse(name, caffeineCache.getNativeCache().estimatedSize(),
+                        s.hitCount(), s.missCount(), s.hitRate(), s.evictionCount()));
+            }
+        }
+        return stats;
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.backend.Kata.services.impl;
+
+import com.backend.Kata.dto.SweetSuggestion;
+import com.backend.Kata.repository.SweetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process index over sweet names for typeahead suggestions.
+ * <p>
+ * Prefix matches come from a sorted map of lower-cased names; longer queries also match
+ * anywhere in the name through trigram posting sets, verified against the full name.
+ * Reads never touch the database. The index is loaded once the application is ready and
+ * kept current by {@link com.backend.Kata.entities.SweetIndexListener}. A reload builds a
+ * fresh set of maps and swaps it in whole, so suggestions served during a reload come from
+ * the previous index rather than a half-filled one.
+ * <p>
+ * Writers serialize on a {@link ReentrantLock} rather than the monitor, because
+ * {@link #reload()} holds it across a JDBC query and a blocked monitor would pin a
+ * virtual thread to its carrier.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SweetNameIndex {
+
+    private static final int GRAM = 3;
+
+    private final SweetRepository sweetRepository;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Index index = new Index();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        writeLock.lock();
+        try {
+            Index loaded = new Index();
+            for (SweetSuggestion sweet : sweetRepository.findAllSuggestions()) {
+                loaded.add(sweet);
+            }
+            index = loaded;
+            log.info("Sweet name index loaded {} names", loaded.entries.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void put(SweetSuggestion sweet) {
+        writeLock.lock();
+        try {
+            index.remove(sweet.getId());
+            index.add(sweet);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            index.remove(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@link #remove} once the surrounding transaction commits, for deletes that bypass
+     * the entity listener.
+     */
+    public void removeAfterCommit(Long id) {
+        removeAfterCommit(List.of(id));
+    }
+
+    public void removeAfterCommit(Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            removeAll(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                removeAll(ids);
+            }
+        });
+    }
+
+    private void removeAll(Collection<Long> ids) {
+        writeLock.lock();
+        try {
+            Index current = index;
+            ids.forEach(current::remove);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} sweets whose name contains {@code query}, ignoring case. Names
+     * starting with the query come first in name order, then the other matches ordered by
+     * where the query occurs.
+     */
+    public List<SweetSuggestion> suggest(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Index index = this.index;
+        Map<Long, SweetSuggestion> entries = index.entries;
+        Map<Long, SweetSuggestion> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : index.byName.tailMap(q).entrySet()) {
+            if (!entry.getKey().startsWith(q) || results.size() >= limit) {
+                break;
+            }
+            SweetSuggestion sweet = entries.get(entry.getValue());
+            if (sweet != null) {
+                results.put(sweet.getId(), sweet);
+            }
+        }
+
+        if (results.size() < limit && q.length() >= GRAM) {
+            List<SweetSuggestion> infix = new ArrayList<>();
+            for (Long id : index.candidates(q)) {
+                SweetSuggestion sweet = entries.get(id);
+                if (sweet != null && !results.containsKey(id) && normalize(sweet.getName()).contains(q)) {
+                    infix.add(sweet);
+                }
+            }
+            infix.sort(Comparator.<SweetSuggestion>comparingInt(s -> normalize(s.getName()).indexOf(q))
+                    .thenComparing(s -> normalize(s.getName())));
+            for (SweetSuggestion sweet : infix) {
+                if (results.size() >= limit) {
+                    break;
+                }
+                results.put(sweet.getId(), sweet);
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    private static Set<String> grams(String name) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            grams.add(name.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String nameKey(String normalizedName, Long id) {
+        return normalizedName + '\u0000' + id;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One generation of the maps. Writers mutate the current generation under the write
+     * lock; a reload replaces it wholesale.
+     */
+    private static final class Index {
+
+        final Map<Long, SweetSuggestion> entries = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<String, Long> byName = new ConcurrentSkipListMap<>();
+        final Map<String, Set<Long>> trigrams = new ConcurrentHashMap<>();
+
+        void remove(Long id) {
+            SweetSuggestion previous = entries.remove(id);
+            if (previous == null) {
+                return;
+            }
+            String name = normalize(previous.getName());
+            byName.remove(nameKey(name, id));
+            for (String gram : grams(name)) {
+                Set<Long> ids = trigrams.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        trigrams.remove(gram);
+                    }
+                }
+            }
+        }
+
+        void add(SweetSuggestion sweet) {
+            String name = normalize(sweet.getName());
+            entries.put(sweet.getId(), sweet);
+            byName.put(nameKey(name, sweet.getId()), sweet.getId());
+            for (String gram : grams(name)) {
+                trigrams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(sweet.getId());
+            }
+        }
+
+        // Ids present in the posting set of every trigram of the query, smallest set first
+        Set<Long> candidates(String q) {
+            List<Set<Long>> postings = new ArrayList<>();
+            for (String gram : grams(q)) {
+                Set<Long> ids = trigrams.get(gram);
+                if (ids == null) {
+                    return Set.of();
+                }
+                postings.add(ids);
+            }
+            postings.sort(Comparator.comparingInt(Set::size));
+            Set<Long> result = new HashSet<>(postings.get(0));
+            for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+                result.retainAll(postings.get(i));
+            }
+            return result;
+        }
+    }
+}
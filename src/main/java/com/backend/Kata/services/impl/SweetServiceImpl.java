@@ -2,23 +2,62 @@ package com.backend.Kata.services.impl;
 
 import com.backend.Kata.dto.*;
 import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.exception.CheckoutFailedException;
+import com.backend.Kata.exception.PreconditionFailedException;
 import com.backend.Kata.repository.SweetRepository;
 import com.backend.Kata.services.SweetService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Sweet catalog and stock operations on the database.
+ * <p>
+ * Lookups by id and the full listing are read through {@link SweetCache}. Every write
+ * puts the new state of the sweet it changed and drops the cached listing; the TTL bounds
+ * how long a read racing a write can keep a stale entry.
+ */
+// Every method is timed as kata.sweet.service, tagged by class and method
+@Timed(value = SweetServiceImpl.TIMER, histogram = true)
 @Service
 @RequiredArgsConstructor
 public class SweetServiceImpl implements SweetService {
 
+    static final String TIMER = "kata.sweet.service";
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_SUGGESTIONS = 50;
+    static final int BULK_CHUNK_SIZE = 500;
+    static final int MAX_UPDATE_ATTEMPTS = 3;
+
     private final SweetRepository sweetRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SweetNameIndex sweetNameIndex;
+    private final SweetCache sweetCache;
+    private final InventoryMetrics inventoryMetrics;
+    private final PurchaseLedger purchaseLedger;
+    private final InventoryAnalytics inventoryAnalytics;
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = SweetCache.CATALOG, allEntries = true)
     public SweetResponse createSweet(CreateSweetRequest request) {
         Sweet sweet = new Sweet();
         sweet.setName(request.getName());
@@ -27,13 +66,16 @@ public class SweetServiceImpl implements SweetService {
         sweet.setQuantity(request.getQuantity());
 
         Sweet savedSweet = sweetRepository.save(sweet);
-        return mapToResponse(savedSweet);
+        SweetResponse response = mapToResponse(savedSweet);
+        inventoryAnalytics.saved(response, response.getQuantity());
+        return response;
     }
 
     @Override
+    @Cacheable(cacheNames = SweetCache.CATALOG, key = "'all'")
     public List<SweetResponse> getAllSweets() {
         return sweetRepository.findAll().stream()
-                .map(this::mapToResponse)
+                .map(SweetServiceImpl::mapToResponse)
                 .collect(Collectors.toList());
     }
 
@@ -46,23 +88,98 @@ public class SweetServiceImpl implements SweetService {
                 request.getMaxPrice()
         );
         return sweets.stream()
-                .map(this::mapToResponse)
+                .map(SweetServiceImpl::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
+    public SweetPage getSweetsPage(String cursor, int limit) {
+        SweetCursor after = cursor == null || cursor.isEmpty() ? null : SweetCursor.decode(cursor);
+        int pageSize = clampPageSize(limit);
+        List<Sweet> sweets = sweetRepository.findPage(
+                after == null ? null : after.name(),
+                after == null ? null : after.id(),
+                Limit.of(pageSize + 1)
+        );
+        return toPage(sweets, pageSize);
+    }
+
+    @Override
+    public SweetPage searchSweetsPage(SearchSweetRequest request, String cursor, int limit) {
+        SweetCursor after = cursor == null || cursor.isEmpty() ? null : SweetCursor.decode(cursor);
+        int pageSize = clampPageSize(limit);
+        List<Sweet> sweets = sweetRepository.searchSweetsPage(
+                request.getName(),
+                request.getCategory(),
+                request.getMinPrice(),
+                request.getMaxPrice(),
+                after == null ? null : after.name(),
+                after == null ? null : after.id(),
+                Limit.of(pageSize + 1)
+        );
+        return toPage(sweets, pageSize);
+    }
+
+    @Override
+    public List<SweetSuggestion> suggestSweets(String query, int limit) {
+        return sweetNameIndex.suggest(query, Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    @Override
+    @Cacheable(cacheNames = SweetCache.SWEETS, key = "#id")
     public SweetResponse getSweetById(Long id) {
         Sweet sweet = sweetRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Sweet not found with id: " + id));
         return mapToResponse(sweet);
     }
 
+    /**
+     * Applies the non-null fields of the request in a transaction of its own. With an
+     * expected version (from {@code If-Match}) a sweet changed since that version fails
+     * with {@link PreconditionFailedException}.
+     * <p>
+     * Without one, a request that only changes stock by a {@code quantityChange} is retried
+     * on a fresh read up to {@link #MAX_UPDATE_ATTEMPTS} times when it loses a race: the
+     * change is added to whatever the other write left. Any other update that loses a race
+     * fails with the version conflict, since re-applying it would overwrite a value the
+     * caller never saw.
+     */
     @Override
-    @Transactional
-    public SweetResponse updateSweet(Long id, UpdateSweetRequest request) {
+    @Caching(put = @CachePut(cacheNames = SweetCache.SWEETS, key = "#id"),
+            evict = @CacheEvict(cacheNames = SweetCache.CATALOG, allEntries = true))
+    public SweetResponse updateSweet(Long id, UpdateSweetRequest request, Long expectedVersion) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyUpdate(id, request, expectedVersion));
+            } catch (OptimisticLockingFailureException ex) {
+                if (expectedVersion != null) {
+                    throw new PreconditionFailedException("Sweet " + id + " was modified concurrently", null);
+                }
+                if (!isStockChangeOnly(request) || attempt == MAX_UPDATE_ATTEMPTS) {
+                    throw ex;
+                }
+                inventoryMetrics.contentionRetry();
+            }
+        }
+    }
+
+    private static boolean isStockChangeOnly(UpdateSweetRequest request) {
+        return request.getQuantityChange() != null && request.getQuantity() == null && request.getName() == null
+                && request.getCategory() == null && request.getPrice() == null;
+    }
+
+    private SweetResponse applyUpdate(Long id, UpdateSweetRequest request, Long expectedVersion) {
+        if (request.getQuantity() != null && request.getQuantityChange() != null) {
+            throw new RuntimeException("Set either quantity or quantityChange, not both");
+        }
         Sweet sweet = sweetRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Sweet not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(sweet.getVersion())) {
+            throw new PreconditionFailedException("Sweet " + id + " has changed since version " + expectedVersion,
+                    sweet.getVersion());
+        }
 
+        int previousQuantity = sweet.getQuantity();
         if (request.getName() != null) {
             sweet.setName(request.getName());
         }
@@ -75,54 +192,191 @@ public class SweetServiceImpl implements SweetService {
         if (request.getQuantity() != null) {
             sweet.setQuantity(request.getQuantity());
         }
+        if (request.getQuantityChange() != null) {
+            int adjusted = previousQuantity + request.getQuantityChange();
+            if (adjusted < 0) {
+                throw new RuntimeException("Insufficient stock. Available: " + previousQuantity + ", Requested: "
+                        + -request.getQuantityChange());
+            }
+            sweet.setQuantity(adjusted);
+        }
 
-        Sweet updatedSweet = sweetRepository.save(sweet);
-        return mapToResponse(updatedSweet);
+        // Flushed here so a version conflict surfaces inside the retry loop
+        Sweet updatedSweet = sweetRepository.saveAndFlush(sweet);
+        SweetResponse response = mapToResponse(updatedSweet);
+        inventoryAnalytics.saved(response, response.getQuantity() - previousQuantity);
+        return response;
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = SweetCache.SWEETS, key = "#id"),
+            @CacheEvict(cacheNames = SweetCache.CATALOG, allEntries = true)
+    })
     public void deleteSweet(Long id) {
-        if (!sweetRepository.existsById(id)) {
+        // One DELETE; bulk JPQL skips the entity listener, so the name index is told directly
+        if (sweetRepository.deleteSweetById(id) == 0) {
             throw new RuntimeException("Sweet not found with id: " + id);
         }
-        sweetRepository.deleteById(id);
+        sweetNameIndex.removeAfterCommit(id);
+        inventoryAnalytics.removed(List.of(id));
     }
 
     @Override
     @Transactional
+    @Caching(put = @CachePut(cacheNames = SweetCache.SWEETS, key = "#id"),
+            evict = @CacheEvict(cacheNames = SweetCache.CATALOG, allEntries = true))
     public SweetResponse purchaseSweet(Long id, PurchaseRequest request) {
-        Sweet sweet = sweetRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Sweet not found with id: " + id));
-
-        int newQuantity = sweet.getQuantity() - request.getQuantity();
-        if (newQuantity < 0) {
+        // Single guarded UPDATE: the stock check and the decrement happen in the database,
+        // so concurrent purchases can neither lose updates nor oversell.
+        if (sweetRepository.decrementQuantity(id, request.getQuantity()) == 0) {
+            Sweet sweet = sweetRepository.findById(id).orElse(null);
+            if (sweet == null) {
+                inventoryMetrics.purchaseNotFound();
+                throw new RuntimeException("Sweet not found with id: " + id);
+            }
+            inventoryMetrics.purchaseInsufficientStock();
             throw new RuntimeException("Insufficient stock. Available: " + sweet.getQuantity() + ", Requested: " + request.getQuantity());
         }
-
-        sweet.setQuantity(newQuantity);
-        Sweet updatedSweet = sweetRepository.save(sweet);
-        return mapToResponse(updatedSweet);
+        inventoryMetrics.purchaseSucceeded();
+        SweetResponse response = getSweetById(id);
+        purchaseLedger.record(id, request.getQuantity(), response.getPrice());
+        inventoryAnalytics.sold(id, response.getCategory(), request.getQuantity(), response.getPrice());
+        return response;
     }
 
     @Override
     @Transactional
+    @Caching(put = @CachePut(cacheNames = SweetCache.SWEETS, key = "#id"),
+            evict = @CacheEvict(cacheNames = SweetCache.CATALOG, allEntries = true))
     public SweetResponse restockSweet(Long id, RestockRequest request) {
-        Sweet sweet = sweetRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Sweet not found with id: " + id));
+        if (sweetRepository.incrementQuantity(id, request.getQuantity()) == 0) {
+            throw new RuntimeException("Sweet not found with id: " + id);
+        }
+        inventoryAnalytics.restocked(Map.of(id, request.getQuantity()));
+        return getSweetById(id);
+    }
+
+    @Override
+    @Transactional
+    public CheckoutResponse checkout(CheckoutRequest request) {
+        // Merge repeated sweets and sort by id: the batch then locks rows in a stable order.
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (CheckoutItem item : request.getItems()) {
+            quantities.merge(item.getSweetId(), item.getQuantity(), Integer::sum);
+        }
+
+        int[] updated = sweetRepository.decrementQuantities(quantities);
+        // Applied only if the checkout commits
+        sweetCache.evict(quantities.keySet());
+        Map<Long, Sweet> sweets = sweetRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Sweet::getId, Function.identity()));
+
+        List<CheckoutLineResult> lines = new ArrayList<>(quantities.size());
+        boolean success = true;
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Sweet sweet = sweets.get(entry.getKey());
+            CheckoutLineResult line = new CheckoutLineResult(entry.getKey(), entry.getValue(), true,
+                    sweet != null ? sweet.getQuantity() : null, null);
+            if (updated[i++] == 0) {
+                success = false;
+                line.setSuccess(false);
+                line.setError(sweet == null
+                        ? "Sweet not found with id: " + entry.getKey()
+                        : "Insufficient stock. Available: " + sweet.getQuantity() + ", Requested: " + entry.getValue());
+            }
+            lines.add(line);
+        }
+
+        inventoryMetrics.checkout(success);
+        if (!success) {
+            // The lines that did apply are rolled back, so a checkout never half-succeeds;
+            // report the stock they will be left with.
+            for (CheckoutLineResult line : lines) {
+                if (line.isSuccess()) {
+                    line.setRemaining(line.getRemaining() + line.getQuantity());
+                }
+            }
+            throw new CheckoutFailedException(new CheckoutResponse(false, lines));
+        }
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Sweet sweet = sweets.get(entry.getKey());
+            purchaseLedger.record(entry.getKey(), entry.getValue(), sweet.getPrice());
+            inventoryAnalytics.sold(entry.getKey(), sweet.getCategory(), entry.getValue(), sweet.getPrice());
+        }
+        return new CheckoutResponse(true, lines);
+    }
 
-        sweet.setQuantity(sweet.getQuantity() + request.getQuantity());
-        Sweet updatedSweet = sweetRepository.save(sweet);
-        return mapToResponse(updatedSweet);
+    @Override
+    @Transactional
+    public BulkOperationResponse deleteSweets(BulkDeleteRequest request) {
+        List<Long> ids = new ArrayList<>(new TreeSet<>(request.getIds()));
+        BulkOperationResponse response = toBulkResponse(ids, sweetRepository.deleteByIds(ids, BULK_CHUNK_SIZE));
+        if (!response.getAffectedIds().isEmpty()) {
+            sweetNameIndex.removeAfterCommit(response.getAffectedIds());
+            inventoryAnalytics.removed(response.getAffectedIds());
+            sweetCache.evict(response.getAffectedIds());
+        }
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public BulkOperationResponse restockSweets(BulkRestockRequest request) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (RestockItem item : request.getItems()) {
+            quantities.merge(item.getSweetId(), item.getQuantity(), Integer::sum);
+        }
+
+        BulkOperationResponse response = toBulkResponse(quantities.keySet(),
+                sweetRepository.incrementQuantities(quantities, BULK_CHUNK_SIZE));
+        if (!response.getAffectedIds().isEmpty()) {
+            SortedMap<Long, Integer> restocked = new TreeMap<>(quantities);
+            restocked.keySet().retainAll(response.getAffectedIds());
+            inventoryAnalytics.restocked(restocked);
+            sweetCache.evict(response.getAffectedIds());
+        }
+        return response;
+    }
+
+    // Pairs each id with its batch update count; ids that matched no row are reported, not fatal.
+    private static BulkOperationResponse toBulkResponse(Collection<Long> ids, int[] updated) {
+        List<Long> affected = new ArrayList<>(ids.size());
+        List<Long> missing = new ArrayList<>();
+        int i = 0;
+        for (Long id : ids) {
+            (updated[i++] == 0 ? missing : affected).add(id);
+        }
+        return new BulkOperationResponse(affected, missing);
+    }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // One extra row is fetched to tell whether another page follows.
+    private SweetPage toPage(List<Sweet> sweets, int pageSize) {
+        boolean hasMore = sweets.size() > pageSize;
+        List<Sweet> page = hasMore ? sweets.subList(0, pageSize) : sweets;
+        String nextCursor = null;
+        if (hasMore) {
+            Sweet last = page.get(page.size() - 1);
+            nextCursor = new SweetCursor(last.getName(), last.getId()).encode();
+        }
+        return new SweetPage(page.stream().map(SweetServiceImpl::mapToResponse).collect(Collectors.toList()), nextCursor);
     }
 
-    private SweetResponse mapToResponse(Sweet sweet) {
+    // Stateless, so WriteBehindSweetService and MappingBenchmark map the same way without a service
+    static SweetResponse mapToResponse(Sweet sweet) {
         return new SweetResponse(
                 sweet.getId(),
                 sweet.getName(),
                 sweet.getCategory(),
                 sweet.getPrice(),
-                sweet.getQuantity()
+                sweet.getQuantity(),
+                sweet.getVersion()
         );
     }
 }
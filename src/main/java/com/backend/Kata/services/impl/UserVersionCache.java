@@ -0,0 +1,35 @@
+package com.backend.Kata.services.impl;
+
+import com.backend.Kata.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Current account version per email, so stateless authentication can tell whether the
+ * version baked into a token is still current without loading the user. Entries expire
+ * after {@code kata.security.user-version-ttl}, which bounds how long a role change or a
+ * deleted account takes to be noticed.
+ */
+@Component
+public class UserVersionCache {
+
+    private final LoadingCache<String, Optional<Integer>> versions;
+
+    public UserVersionCache(UserRepository userRepository,
+                            @Value("${kata.security.user-version-ttl:30s}") Duration ttl,
+                            @Value("${kata.security.user-version-cache-size:10000}") long maximumSize) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build(userRepository::findVersionByEmail);
+    }
+
+    public boolean isCurrent(String email, int version) {
+        return versions.get(email).map(current -> current == version).orElse(false);
+    }
+}
@@ -0,0 +1,102 @@
+package com.backend.Kata.services.impl;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the {@link SweetCache#CATALOG} cache so that every eviction moves the
+ * {@link CatalogVersion} once it is done. Every write evicts the listing, after any put of
+ * the single sweet, so a reader never sees the new version next to a cached body from
+ * before the write.
+ * <p>
+ * Sits below the transaction-aware decorator: an eviction deferred to commit moves the
+ * version when it actually runs.
+ */
+public class VersionedCatalogCache implements Cache {
+
+    private final Cache target;
+    private final CatalogVersion catalogVersion;
+
+    public VersionedCatalogCache(Cache target, CatalogVersion catalogVersion) {
+        this.target = target;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public Cache getTargetCache() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return target.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return target.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return target.get(key, valueLoader);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return target.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return target.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+        catalogVersion.advance();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = target.evictIfPresent(key);
+        catalogVersion.advance();
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+        catalogVersion.advance();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = target.invalidate();
+        catalogVersion.advance();
+        return present;
+    }
+}
@@ -0,0 +1,574 @@
+package com.backend.Kata.services.impl;
+
+import com.backend.Kata.dto.*;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.exception.CheckoutFailedException;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.SweetService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Optional inventory engine in front of {@link SweetServiceImpl}, enabled with
+ * {@code kata.inventory.write-behind.enabled=true}.
+ * <p>
+ * Stock counts live in memory, one lock-free counter per sweet id, and are the source of
+ * truth while the engine is on. Purchases are checked and taken on those counters; each
+ * purchase or restock then appends its delta to {@code stock_journal} before it is
+ * acknowledged, an insert that never waits on the hot {@code sweet} row. Every
+ * {@code kata.inventory.write-behind.flush-interval} the journal is folded into
+ * {@code sweet.quantity} in one JDBC batch, and the rows applied are deleted in the same
+ * transaction: a crash loses no acknowledged delta, and a flush whose commit failed
+ * midway is either applied once or not at all. All other operations go through to the
+ * database and keep the counters in step.
+ * <p>
+ * This assumes a single application instance owns the {@code sweet} table. Row versions,
+ * and with them the ETag of a single sweet, advance when stock is flushed rather than on
+ * every purchase.
+ * <p>
+ * Flushes and reloads are serialized on a {@link ReentrantLock}, not the monitor: they
+ * hold it across JDBC calls, and waiting on a monitor would pin a virtual thread.
+ */
+@Slf4j
+@Timed(value = SweetServiceImpl.TIMER, histogram = true)
+@Primary
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "kata.inventory.write-behind.enabled", havingValue = "true")
+public class WriteBehindSweetService implements SweetService {
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE sweet SET quantity = quantity + ?, version = version + 1 WHERE id = ?";
+    private static final String JOURNAL_SQL = "INSERT INTO stock_journal (sweet_id, delta) VALUES (?, ?)";
+    private static final String READ_JOURNAL_SQL = "SELECT id, sweet_id, delta FROM stock_journal ORDER BY id";
+    private static final String DELETE_JOURNAL_SQL = "DELETE FROM stock_journal WHERE id = ?";
+
+    private final SweetServiceImpl delegate;
+    private final SweetRepository sweetRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SweetCache sweetCache;
+    private final CatalogVersion catalogVersion;
+    private final InventoryMetrics inventoryMetrics;
+    private final PurchaseLedger purchaseLedger;
+    private final InventoryAnalytics inventoryAnalytics;
+
+    private final Map<Long, StockSlot> slots = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Loads stock for every sweet at startup, after applying the journal a crash may have
+     * left. Called again after writes that bypass this service, such as a catalog import:
+     * deltas still in the journal stay on top of the fresh database value. Stock changes
+     * are turned away until then, since purchases could only be checked against stock the
+     * reload is about to replace.
+     */
+    @PostConstruct
+    public void loadStock() {
+        flushLock.lock();
+        Set<StockSlot> held = Collections.newSetFromMap(new IdentityHashMap<>());
+        held.addAll(slots.values());
+        held.forEach(StockSlot::hold);
+        try {
+            flush();
+            Map<Long, Integer> unflushed = netDeltas(readJournal());
+            for (Sweet sweet : sweetRepository.findAll()) {
+                SweetResponse snapshot = SweetServiceImpl.mapToResponse(sweet);
+                int stock = snapshot.getQuantity() + unflushed.getOrDefault(sweet.getId(), 0);
+                slots.compute(sweet.getId(), (id, slot) -> {
+                    if (slot == null) {
+                        return new StockSlot(snapshot, stock);
+                    }
+                    // A slot created during the reload is already current
+                    if (held.contains(slot)) {
+                        slot.snapshot = snapshot;
+                        slot.reset(stock);
+                    }
+                    return slot;
+                });
+            }
+            log.info("Write-behind inventory loaded stock for {} sweets", slots.size());
+        } finally {
+            held.forEach(StockSlot::release);
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    @Override
+    public SweetResponse createSweet(CreateSweetRequest request) {
+        SweetResponse response = delegate.createSweet(request);
+        slots.put(response.getId(), new StockSlot(response, response.getQuantity()));
+        return response;
+    }
+
+    @Override
+    public List<SweetResponse> getAllSweets() {
+        return overlay(delegate.getAllSweets());
+    }
+
+    @Override
+    public List<SweetResponse> searchSweets(SearchSweetRequest request) {
+        return overlay(delegate.searchSweets(request));
+    }
+
+    @Override
+    public SweetPage getSweetsPage(String cursor, int limit) {
+        SweetPage page = delegate.getSweetsPage(cursor, limit);
+        page.setItems(overlay(page.getItems()));
+        return page;
+    }
+
+    @Override
+    public SweetPage searchSweetsPage(SearchSweetRequest request, String cursor, int limit) {
+        SweetPage page = delegate.searchSweetsPage(request, cursor, limit);
+        page.setItems(overlay(page.getItems()));
+        return page;
+    }
+
+    @Override
+    public List<SweetSuggestion> suggestSweets(String query, int limit) {
+        return delegate.suggestSweets(query, limit);
+    }
+
+    @Override
+    public SweetResponse getSweetById(Long id) {
+        return overlay(delegate.getSweetById(id));
+    }
+
+    @Override
+    public SweetResponse updateSweet(Long id, UpdateSweetRequest request, Long expectedVersion) {
+        if (request.getQuantity() == null && request.getQuantityChange() == null) {
+            SweetResponse response = overlay(delegate.updateSweet(id, request, expectedVersion));
+            StockSlot slot = slots.get(id);
+            if (slot != null) {
+                slot.snapshot = response;
+            }
+            return response;
+        }
+        return overwriteQuantity(id, request, expectedVersion);
+    }
+
+    /**
+     * An explicit quantity overwrites the column, and a quantity change adjusts it: the
+     * journal is flushed first, and the update fails if it cannot be, so that no older
+     * delta lands on top of the new value later. The counter is then reset to the new
+     * value, last write wins as with the plain service. Purchases and restocks of the sweet
+     * are turned away with a conflict while the update runs, as they could only be checked
+     * against the stock it replaces.
+     */
+    private SweetResponse overwriteQuantity(Long id, UpdateSweetRequest request, Long expectedVersion) {
+        flushLock.lock();
+        StockSlot held = slots.get(id);
+        if (held != null) {
+            held.hold();
+        }
+        try {
+            applyJournal();
+            SweetResponse response = delegate.updateSweet(id, request, expectedVersion);
+            StockSlot slot = slots.computeIfAbsent(id, key -> new StockSlot(response, response.getQuantity()));
+            slot.snapshot = response;
+            slot.reset(response.getQuantity());
+            return slot.toResponse(slot.stock());
+        } finally {
+            if (held != null) {
+                held.release();
+            }
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteSweet(Long id) {
+        delegate.deleteSweet(id);
+        slots.remove(id);
+    }
+
+    @Override
+    public SweetResponse purchaseSweet(Long id, PurchaseRequest request) {
+        if (!slots.containsKey(id)) {
+            inventoryMetrics.purchaseNotFound();
+        }
+        StockSlot slot = requireSlot(id);
+        int requested = request.getQuantity();
+        int remaining = slot.tryTake(requested, inventoryMetrics);
+        if (remaining == StockSlot.HELD) {
+            throw beingUpdated(id);
+        }
+        if (remaining < 0) {
+            inventoryMetrics.purchaseInsufficientStock();
+            throw new RuntimeException("Insufficient stock. Available: " + slot.stock() + ", Requested: " + requested);
+        }
+        try {
+            jdbcTemplate.update(JOURNAL_SQL, id, -requested);
+        } catch (RuntimeException ex) {
+            slot.finish(requested);
+            throw ex;
+        }
+        slot.finish(0);
+        inventoryMetrics.purchaseSucceeded();
+        catalogVersion.bump();
+        SweetResponse response = slot.toResponse(remaining);
+        purchaseLedger.record(id, requested, response.getPrice());
+        inventoryAnalytics.sold(id, response.getCategory(), requested, response.getPrice());
+        return response;
+    }
+
+    @Override
+    public SweetResponse restockSweet(Long id, RestockRequest request) {
+        StockSlot slot = requireSlot(id);
+        if (!slot.begin()) {
+            throw beingUpdated(id);
+        }
+        try {
+            jdbcTemplate.update(JOURNAL_SQL, id, request.getQuantity());
+        } catch (RuntimeException ex) {
+            slot.finish(0);
+            throw ex;
+        }
+        int restocked = slot.finish(request.getQuantity());
+        inventoryAnalytics.restocked(Map.of(id, request.getQuantity()));
+        catalogVersion.bump();
+        return slot.toResponse(restocked);
+    }
+
+    @Override
+    public CheckoutResponse checkout(CheckoutRequest request) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (CheckoutItem item : request.getItems()) {
+            quantities.merge(item.getSweetId(), item.getQuantity(), Integer::sum);
+        }
+
+        List<CheckoutLineResult> lines = new ArrayList<>(quantities.size());
+        List<SweetResponse> taken = new ArrayList<>(quantities.size());
+        List<StockSlot> takenFrom = new ArrayList<>(quantities.size());
+        boolean success = true;
+        int remaining;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            StockSlot slot = slots.get(entry.getKey());
+            CheckoutLineResult line = new CheckoutLineResult(entry.getKey(), entry.getValue(), false, null, null);
+            if (slot == null) {
+                line.setError("Sweet not found with id: " + entry.getKey());
+            } else if ((remaining = slot.tryTake(entry.getValue(), inventoryMetrics)) >= 0) {
+                line.setSuccess(true);
+                line.setRemaining(remaining);
+                taken.add(slot.snapshot);
+                takenFrom.add(slot);
+            } else if (remaining == StockSlot.HELD) {
+                line.setError(beingUpdated(entry.getKey()).getMessage());
+            } else {
+                line.setRemaining(slot.stock());
+                line.setError("Insufficient stock. Available: " + line.getRemaining() + ", Requested: " + entry.getValue());
+            }
+            success &= line.isSuccess();
+            lines.add(line);
+        }
+
+        if (success) {
+            List<Object[]> journal = new ArrayList<>(lines.size());
+            lines.forEach(line -> journal.add(new Object[]{line.getSweetId(), -line.getQuantity()}));
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(JOURNAL_SQL, journal));
+            } catch (RuntimeException ex) {
+                for (int i = 0; i < lines.size(); i++) {
+                    takenFrom.get(i).finish(lines.get(i).getQuantity());
+                }
+                throw ex;
+            }
+            takenFrom.forEach(slot -> slot.finish(0));
+        }
+
+        inventoryMetrics.checkout(success);
+        if (!success) {
+            // Give back what was taken so the checkout does not half-succeed.
+            int i = 0;
+            for (CheckoutLineResult line : lines) {
+                if (line.isSuccess()) {
+                    line.setRemaining(takenFrom.get(i++).finish(line.getQuantity()));
+                }
+            }
+            throw new CheckoutFailedException(new CheckoutResponse(false, lines));
+        }
+        catalogVersion.bump();
+        for (int i = 0; i < lines.size(); i++) {
+            CheckoutLineResult line = lines.get(i);
+            SweetResponse sweet = taken.get(i);
+            purchaseLedger.record(line.getSweetId(), line.getQuantity(), sweet.getPrice());
+            inventoryAnalytics.sold(line.getSweetId(), sweet.getCategory(), line.getQuantity(), sweet.getPrice());
+        }
+        return new CheckoutResponse(true, lines);
+    }
+
+    @Override
+    public BulkOperationResponse deleteSweets(BulkDeleteRequest request) {
+        BulkOperationResponse response = delegate.deleteSweets(request);
+        response.getAffectedIds().forEach(slots::remove);
+        return response;
+    }
+
+    /**
+     * Adds to the in-memory counters like {@link #restockSweet}, journaling all deltas in one
+     * batch; they reach {@code sweet.quantity} with the next flush.
+     */
+    @Override
+    public BulkOperationResponse restockSweets(BulkRestockRequest request) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (RestockItem item : request.getItems()) {
+            quantities.merge(item.getSweetId(), item.getQuantity(), Integer::sum);
+        }
+
+        SortedMap<Long, Integer> restocked = new TreeMap<>();
+        Map<Long, StockSlot> begun = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            StockSlot slot = slots.get(entry.getKey());
+            if (slot == null) {
+                missing.add(entry.getKey());
+                continue;
+            }
+            if (!slot.begin()) {
+                begun.values().forEach(started -> started.finish(0));
+                throw beingUpdated(entry.getKey());
+            }
+            begun.put(entry.getKey(), slot);
+            restocked.put(entry.getKey(), entry.getValue());
+        }
+        if (!restocked.isEmpty()) {
+            List<Object[]> journal = new ArrayList<>(restocked.size());
+            restocked.forEach((id, quantity) -> journal.add(new Object[]{id, quantity}));
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(JOURNAL_SQL, journal));
+            } catch (RuntimeException ex) {
+                begun.values().forEach(slot -> slot.finish(0));
+                throw ex;
+            }
+            restocked.forEach((id, quantity) -> begun.get(id).finish(quantity));
+            inventoryAnalytics.restocked(restocked);
+            catalogVersion.bump();
+        }
+        return new BulkOperationResponse(new ArrayList<>(restocked.keySet()), missing);
+    }
+
+    /**
+     * Applies the stock journal to the database. A failed flush leaves the journal as it
+     * was and is retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${kata.inventory.write-behind.flush-interval:1s}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            applyJournal();
+        } catch (RuntimeException ex) {
+            inventoryMetrics.flushFailed();
+            log.warn("Write-behind flush failed, the stock journal is kept for the next run", ex);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the net delta per sweet to {@code sweet.quantity} in one batch and deletes the
+     * journal rows that made it up, all in one transaction. Rows still being inserted are
+     * not visible yet and wait for the next run.
+     */
+    private void applyJournal() {
+        flushLock.lock();
+        try {
+            Map<Long, Integer> applied = transactionTemplate.execute(status -> {
+                List<long[]> journal = readJournal();
+                Map<Long, Integer> deltas = netDeltas(journal);
+                deltas.values().removeIf(delta -> delta == 0);
+                if (!deltas.isEmpty()) {
+                    List<Object[]> batch = new ArrayList<>(deltas.size());
+                    deltas.forEach((id, delta) -> batch.add(new Object[]{delta, id}));
+                    jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch);
+                }
+                if (!journal.isEmpty()) {
+                    jdbcTemplate.batchUpdate(DELETE_JOURNAL_SQL,
+                            journal.stream().map(entry -> new Object[]{entry[0]}).toList());
+                }
+                return deltas;
+            });
+            if (applied != null && !applied.isEmpty()) {
+                // The flush bumped their row versions; drop the cached copies carrying the old ones,
+                // which also moves the catalog version the ETag of a single sweet is checked against
+                sweetCache.evict(new ArrayList<>(applied.keySet()));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Each row as {id, sweet id, delta}
+    private List<long[]> readJournal() {
+        return jdbcTemplate.query(READ_JOURNAL_SQL,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getInt(3)});
+    }
+
+    private static Map<Long, Integer> netDeltas(List<long[]> journal) {
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (long[] entry : journal) {
+            deltas.merge(entry[1], (int) entry[2], Integer::sum);
+        }
+        return deltas;
+    }
+
+    private static OptimisticLockingFailureException beingUpdated(Long id) {
+        return new OptimisticLockingFailureException("Stock of sweet " + id + " is being updated, retry");
+    }
+
+    private StockSlot requireSlot(Long id) {
+        StockSlot slot = slots.get(id);
+        if (slot == null) {
+            throw new RuntimeException("Sweet not found with id: " + id);
+        }
+        return slot;
+    }
+
+    private List<SweetResponse> overlay(List<SweetResponse> responses) {
+        return responses.stream()
+                .map(this::overlay)
+                .collect(Collectors.toList());
+    }
+
+    // Responses may be shared through the sweet cache, so the live stock goes on a copy
+    private SweetResponse overlay(SweetResponse response) {
+        StockSlot slot = slots.get(response.getId());
+        if (slot == null) {
+            return response;
+        }
+        return new SweetResponse(response.getId(), response.getName(), response.getCategory(),
+                response.getPrice(), slot.stock(), response.getVersion());
+    }
+
+    /**
+     * Stock in the high 32 bits, then the number of stock changes whose journal row is still
+     * being written in 31 bits, and a hold flag in the lowest bit of one {@link AtomicLong}.
+     * A hold turns new changes away and waits for those in flight, so the stock can then be
+     * replaced without a purchase slipping in between the check it passed and the journal.
+     */
+    private static final class StockSlot {
+        private static final int HELD = Integer.MIN_VALUE;
+        private static final long SETTLE_PAUSE_NANOS = 100_000;
+
+        private final AtomicLong state;
+        private volatile SweetResponse snapshot;
+
+        private StockSlot(SweetResponse snapshot, int stock) {
+            this.snapshot = snapshot;
+            this.state = new AtomicLong(pack(stock, 0, false));
+        }
+
+        private int stock() {
+            return stock(state.get());
+        }
+
+        /**
+         * Takes {@code quantity} units if available, with a CAS loop instead of a lock, and
+         * counts the change as in flight until {@link #finish}. Returns the stock left, -1 if
+         * there was not enough, or {@link #HELD} while the stock is being replaced. Lost CAS
+         * rounds are counted as contention retries.
+         */
+        private int tryTake(int quantity, InventoryMetrics metrics) {
+            while (true) {
+                long current = state.get();
+                if (held(current)) {
+                    return HELD;
+                }
+                int available = stock(current);
+                if (available < quantity) {
+                    return -1;
+                }
+                if (state.compareAndSet(current, pack(available - quantity, inFlight(current) + 1, false))) {
+                    return available - quantity;
+                }
+                metrics.contentionRetry();
+            }
+        }
+
+        // Counts a restock as in flight; false while the stock is being replaced
+        private boolean begin() {
+            while (true) {
+                long current = state.get();
+                if (held(current)) {
+                    return false;
+                }
+                if (state.compareAndSet(current, pack(stock(current), inFlight(current) + 1, false))) {
+                    return true;
+                }
+            }
+        }
+
+        // Ends a change in flight, adding quantity to the stock; returns the new stock
+        private int finish(int quantity) {
+            return stock(state.updateAndGet(current ->
+                    pack(stock(current) + quantity, inFlight(current) - 1, held(current))));
+        }
+
+        private void hold() {
+            state.updateAndGet(current -> pack(stock(current), inFlight(current), true));
+            while (inFlight(state.get()) != 0) {
+                LockSupport.parkNanos(SETTLE_PAUSE_NANOS);
+            }
+        }
+
+        private void release() {
+            state.updateAndGet(current -> pack(stock(current), inFlight(current), false));
+        }
+
+        private void reset(int stock) {
+            state.updateAndGet(current -> pack(stock, inFlight(current), held(current)));
+        }
+
+        private SweetResponse toResponse(int quantity) {
+            SweetResponse current = snapshot;
+            return new SweetResponse(current.getId(), current.getName(), current.getCategory(),
+                    current.getPrice(), quantity, current.getVersion());
+        }
+
+        private static long pack(int stock, int inFlight, boolean held) {
+            return ((long) stock << 32) | (((long) inFlight << 1) & 0xFFFFFFFEL) | (held ? 1 : 0);
+        }
+
+        private static int stock(long state) {
+            return (int) (state >> 32);
+        }
+
+        private static int inFlight(long state) {
+            return (int) state >>> 1;
+        }
+
+        private static boolean held(long state) {
+            return (state & 1) != 0;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Databases created that
+-- way are baselined at this version and start from V2.
+
+CREATE TABLE user (
+    id       INT          NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(255),
+    email    VARCHAR(255) NOT NULL,
+    password VARCHAR(255),
+    role     TINYINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_email UNIQUE (email)
+);
+
+CREATE TABLE sweet (
+    id       BIGINT         NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(255)   NOT NULL,
+    category VARCHAR(255)   NOT NULL,
+    price    DECIMAL(10, 2) NOT NULL,
+    quantity INT            NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_sweet_name UNIQUE (name)
+);
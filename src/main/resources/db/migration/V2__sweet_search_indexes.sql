@@ -0,0 +1,16 @@
+-- Lower-cased copies of name and category maintained by the database, so case-insensitive
+-- filters compare an indexed column instead of applying LOWER() to every row.
+ALTER TABLE sweet ADD COLUMN name_normalized VARCHAR(255) GENERATED ALWAYS AS (LOWER(name));
+ALTER TABLE sweet ADD COLUMN category_normalized VARCHAR(255) GENERATED ALWAYS AS (LOWER(category));
+
+-- Category equality, optionally narrowed by a price range
+CREATE INDEX idx_sweet_category_price ON sweet (category_normalized, price);
+
+-- Price range on its own
+CREATE INDEX idx_sweet_price ON sweet (price);
+
+-- Name prefix matches
+CREATE INDEX idx_sweet_name_normalized ON sweet (name_normalized);
+
+-- Admin lookup at startup
+CREATE INDEX idx_user_role ON user (role);
@@ -0,0 +1,2 @@
+-- Per-row version for optimistic locking; bulk stock updates bump it explicitly
+ALTER TABLE sweet ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Account version carried in access tokens. Changes made outside the application, such
+-- as a manual role update, must bump it for issued tokens to stop being trusted.
+ALTER TABLE user ADD COLUMN version INT NOT NULL DEFAULT 0;
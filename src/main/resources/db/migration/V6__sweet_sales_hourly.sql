@@ -0,0 +1,10 @@
+-- Checkpoints of the in-memory sales aggregates: units and revenue per sweet, category
+-- and hour. Rows only grow by added deltas, so several instances sum up correctly.
+CREATE TABLE sweet_sales_hourly (
+    bucket_start DATETIME       NOT NULL,
+    sweet_id     BIGINT         NOT NULL,
+    category     VARCHAR(255)   NOT NULL,
+    units        BIGINT         NOT NULL,
+    revenue      DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (bucket_start, sweet_id, category)
+);
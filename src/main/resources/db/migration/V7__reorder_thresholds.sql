@@ -0,0 +1,14 @@
+-- Reorder thresholds for low-stock alerts. A sweet's own threshold wins over its
+-- category's; sweets with neither use kata.stock-alerts.default-threshold.
+CREATE TABLE sweet_reorder_threshold (
+    sweet_id  BIGINT NOT NULL,
+    threshold INT    NOT NULL,
+    PRIMARY KEY (sweet_id),
+    CONSTRAINT fk_sweet_reorder_threshold_sweet FOREIGN KEY (sweet_id) REFERENCES sweet (id) ON DELETE CASCADE
+);
+
+CREATE TABLE category_reorder_threshold (
+    category  VARCHAR(255) NOT NULL,
+    threshold INT          NOT NULL,
+    PRIMARY KEY (category)
+);
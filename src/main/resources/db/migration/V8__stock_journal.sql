@@ -0,0 +1,9 @@
+-- Stock deltas of the write-behind inventory engine, appended before a purchase or restock
+-- is acknowledged. A flush adds them to sweet.quantity and deletes the rows it applied in
+-- the same transaction; rows left by a crash are applied at the next start.
+CREATE TABLE stock_journal (
+    id       BIGINT NOT NULL AUTO_INCREMENT,
+    sweet_id BIGINT NOT NULL,
+    delta    INT    NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,131 @@
+package com.backend.Kata.config;
+
+import com.backend.Kata.entities.Role;
+import com.backend.Kata.entities.User;
+import com.backend.Kata.services.JWTService;
+import com.backend.Kata.services.UserService;
+import com.backend.Kata.services.impl.AuthMetrics;
+import com.backend.Kata.services.impl.UserVersionCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JWTService jwtService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserVersionCache userVersionCache;
+
+    @Mock
+    private AuthMetrics authMetrics;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(jwtService, userService, userVersionCache, authMetrics, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testStatelessAuthUsesTokenAuthorities() throws Exception {
+        Claims claims = claims(3);
+        when(jwtService.verify("token")).thenReturn(claims);
+        when(userVersionCache.isCurrent("admin@example.com", 3)).thenReturn(true);
+        when(jwtService.isTokenValid(eq(claims), any(UserDetails.class))).thenReturn(true);
+
+        filter.doFilter(request("/api/sweets"), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals("admin@example.com", authentication.getName());
+        assertEquals(List.of(Role.ADMIN.name()),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testStaleAccountVersionFallsBackToUserLoad() throws Exception {
+        Claims claims = claims(3);
+        User user = new User();
+        user.setEmail("admin@example.com");
+        user.setRole(Role.USER);
+        when(jwtService.verify("token")).thenReturn(claims);
+        when(userVersionCache.isCurrent("admin@example.com", 3)).thenReturn(false);
+        when(userService.userDetailsService()).thenReturn(userDetailsService);
+        when(userDetailsService.loadUserByUsername("admin@example.com")).thenReturn(user);
+        when(jwtService.isTokenValid(claims, user)).thenReturn(true);
+
+        filter.doFilter(request("/api/sweets"), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals(List.of(Role.USER.name()),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void testAuthPathsAreNotFiltered() throws Exception {
+        filter.doFilter(request("/api/auth/signin"), new MockHttpServletResponse(), new MockFilterChain());
+
+        verifyNoInteractions(jwtService, userService, userVersionCache);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void testRejectedTokenIsCounted() {
+        MalformedJwtException malformed = new MalformedJwtException("bad token");
+        when(jwtService.verify("token")).thenThrow(malformed);
+
+        assertThrows(MalformedJwtException.class, () ->
+                filter.doFilter(request("/api/sweets"), new MockHttpServletResponse(), new MockFilterChain()));
+
+        verify(authMetrics).jwtRejected(malformed);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static Claims claims(int version) {
+        return Jwts.claims()
+                .subject("admin@example.com")
+                .add("authorities", List.of(Role.ADMIN.name()))
+                .add("ver", version)
+                .build();
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("Authorization", "Bearer token");
+        return request;
+    }
+}
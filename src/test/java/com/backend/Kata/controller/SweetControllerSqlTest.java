@@ -0,0 +1,149 @@
+package com.backend.Kata.controller;
+
+import com.backend.Kata.entities.Role;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.entities.User;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.repository.UserRepository;
+import com.backend.Kata.services.JWTService;
+import com.backend.Kata.services.impl.SweetCache;
+import com.backend.Kata.services.impl.UserVersionCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static com.backend.Kata.support.SqlStatements.assertStatements;
+import static com.backend.Kata.support.SqlStatements.assertStatementsAndRows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact SQL statement counts per endpoint, against the embedded H2 profile. A change that
+ * adds a query to one of these paths fails here rather than showing up as load in
+ * production.
+ * <p>
+ * Requests carry real access tokens through the whole filter chain, with stateless
+ * authentication so that the counts cover the endpoint and not a user load.
+ */
+@SpringBootTest(properties = {"kata.security.password-hash-target=1ms", "kata.security.stateless-auth.enabled=true"})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class SweetControllerSqlTest {
+
+    private static final String EMAIL = "sql-budget@example.com";
+    private static final String BUYER = "sql-buyer@example.com";
+    private static final String ADMIN = "sql-admin@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private SweetCache sweetCache;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private UserVersionCache userVersionCache;
+
+    private Long id;
+    private String buyerToken;
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        id = sweetRepository.save(new Sweet(null, "Counted Fudge", "Fudge", new BigDecimal("2.00"), 10)).getId();
+        sweetCache.clear();
+        buyerToken = token(BUYER, Role.USER);
+        adminToken = token(ADMIN, Role.ADMIN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sweetRepository.deleteAll();
+        for (String email : new String[]{EMAIL, BUYER, ADMIN}) {
+            userRepository.findFirstByEmail(email).ifPresent(userRepository::delete);
+        }
+    }
+
+    @Test
+    void testGetByIdIsOneSelect() throws Exception {
+        assertStatementsAndRows(1, 1, () -> mockMvc.perform(get("/api/sweets/{id}", id)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + buyerToken))
+                .andExpect(status().isOk()));
+        // Served from the cache the second time
+        assertStatements(0, () -> mockMvc.perform(get("/api/sweets/{id}", id)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + buyerToken))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testListIsOneSelect() throws Exception {
+        assertStatements(1, () -> mockMvc.perform(get("/api/sweets")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + buyerToken))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testPurchaseIsGuardedUpdateAndReload() throws Exception {
+        assertStatements(2, () -> mockMvc.perform(post("/api/sweets/{id}/purchase", id)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + buyerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":1}"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testDeleteIsOneStatement() throws Exception {
+        assertStatementsAndRows(1, 1, () -> mockMvc.perform(delete("/api/sweets/{id}", id)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+                .andExpect(status().isNoContent()));
+    }
+
+    @Test
+    void testLoginLooksUpUserOnce() throws Exception {
+        User user = new User();
+        user.setName("Budget");
+        user.setEmail(EMAIL);
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setRole(Role.USER);
+        userRepository.save(user);
+
+        assertStatements(1, () -> mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk()));
+    }
+
+    // Issues a token for a stored user and warms its account version, which stateless
+    // authentication otherwise loads once on first use
+    private String token(String email, Role role) {
+        User user = new User();
+        user.setName(role.name());
+        user.setEmail(email);
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setRole(role);
+        user = userRepository.save(user);
+        userVersionCache.isCurrent(email, user.getVersion());
+        return jwtService.generateToken(user);
+    }
+}
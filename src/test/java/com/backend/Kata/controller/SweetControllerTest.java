@@ -1,16 +1,29 @@
 package com.backend.Kata.controller;
 
 import com.backend.Kata.dto.*;
+import com.backend.Kata.exception.CheckoutFailedException;
+import com.backend.Kata.exception.PreconditionFailedException;
+import com.backend.Kata.repository.UserRepository;
+import com.backend.Kata.services.CatalogExportService;
+import com.backend.Kata.services.JWTService;
 import com.backend.Kata.services.SweetService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.backend.Kata.services.UserService;
+import com.backend.Kata.services.impl.AuthMetrics;
+import com.backend.Kata.services.impl.CatalogVersion;
+import com.backend.Kata.services.impl.PasswordCheckExecutor;
+import com.backend.Kata.services.impl.UserVersionCache;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
@@ -28,12 +41,45 @@ class SweetControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
-    @MockBean
+    @MockitoBean
     private SweetService sweetService;
 
+    @MockitoBean
+    private CatalogExportService catalogExportService;
+
+    @MockitoBean
+    private CatalogVersion catalogVersion;
+
+    @MockitoBean
+    private UserVersionCache userVersionCache;
+
+    @MockitoBean
+    private PasswordCheckExecutor passwordCheckExecutor;
+
+    @MockitoBean
+    private AuthMetrics authMetrics;
+
+    @MockitoBean
+    private JWTService jwtService;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void setUp() {
+        when(catalogVersion.etag()).thenReturn("\"test-7\"");
+        when(catalogVersion.value()).thenReturn("test-7");
+    }
+
     @Test
     @WithMockUser
     void testCreateSweet() throws Exception {
@@ -44,7 +90,7 @@ class SweetControllerTest {
         request.setQuantity(100);
 
         SweetResponse response = new SweetResponse(1L, "Chocolate Bar", "Chocolate", 
-                new BigDecimal("2.50"), 100);
+                new BigDecimal("2.50"), 100, 3L);
 
         when(sweetService.createSweet(any(CreateSweetRequest.class))).thenReturn(response);
 
@@ -63,35 +109,108 @@ class SweetControllerTest {
     @WithMockUser
     void testGetAllSweets() throws Exception {
         SweetResponse sweet1 = new SweetResponse(1L, "Chocolate Bar", "Chocolate", 
-                new BigDecimal("2.50"), 100);
+                new BigDecimal("2.50"), 100, 3L);
         SweetResponse sweet2 = new SweetResponse(2L, "Candy", "Candy", 
-                new BigDecimal("1.00"), 50);
+                new BigDecimal("1.00"), 50, 3L);
 
         when(sweetService.getAllSweets()).thenReturn(Arrays.asList(sweet1, sweet2));
 
         mockMvc.perform(get("/api/sweets"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"test-7\""))
                 .andExpect(jsonPath("$.length()").value(2));
 
         verify(sweetService, times(1)).getAllSweets();
     }
 
+    @Test
+    @WithMockUser
+    void testGetAllSweetsNotModified() throws Exception {
+        mockMvc.perform(get("/api/sweets").header("If-None-Match", "\"test-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"test-7\""))
+                .andExpect(content().string(""));
+
+        verify(sweetService, never()).getAllSweets();
+    }
+
+    @Test
+    @WithMockUser
+    void testGetSweetsPage() throws Exception {
+        SweetResponse sweet1 = new SweetResponse(1L, "Candy", "Candy",
+                new BigDecimal("1.00"), 50, 3L);
+
+        when(sweetService.getSweetsPage("abc", 1)).thenReturn(new SweetPage(List.of(sweet1), "def"));
+
+        mockMvc.perform(get("/api/sweets").param("limit", "1").param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+
+        verify(sweetService, times(1)).getSweetsPage("abc", 1);
+        verify(sweetService, never()).getAllSweets();
+    }
+
+    @Test
+    @WithMockUser
+    void testSuggestSweets() throws Exception {
+        when(sweetService.suggestSweets("cho", 5)).thenReturn(List.of(
+                new SweetSuggestion(1L, "Chocolate Bar", "Chocolate")));
+
+        mockMvc.perform(get("/api/sweets/suggest").param("q", "cho").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Chocolate Bar"));
+
+        verify(sweetService, times(1)).suggestSweets("cho", 5);
+    }
+
+    @Test
+    @WithMockUser
+    void testExportSweets() throws Exception {
+        when(catalogExportService.exportNdjson(any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes());
+            return 2L;
+        });
+
+        mockMvc.perform(get("/api/sweets/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+
+        verify(sweetService, never()).getSweetById(any());
+    }
+
     @Test
     @WithMockUser
     void testGetSweetById() throws Exception {
         SweetResponse response = new SweetResponse(1L, "Chocolate Bar", "Chocolate", 
-                new BigDecimal("2.50"), 100);
+                new BigDecimal("2.50"), 100, 3L);
 
         when(sweetService.getSweetById(1L)).thenReturn(response);
 
-        mockMvc.perform(get("/api/sweets/1"))
+        // Issued before the catalog last changed
+        mockMvc.perform(get("/api/sweets/1").header("If-None-Match", "\"3:test-6\""))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3:test-7\""))
                 .andExpect(jsonPath("$.id").value(1))
-                .andExpect(jsonPath("$.name").value("Chocolate Bar"));
+                .andExpect(jsonPath("$.name").value("Chocolate Bar"))
+                .andExpect(jsonPath("$.version").value(3));
 
         verify(sweetService, times(1)).getSweetById(1L);
     }
 
+    @Test
+    @WithMockUser
+    void testGetSweetByIdNotModified() throws Exception {
+        mockMvc.perform(get("/api/sweets/1").header("If-None-Match", "\"3:test-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3:test-7\""))
+                .andExpect(content().string(""));
+
+        verify(sweetService, never()).getSweetById(any());
+    }
+
     @Test
     @WithMockUser
     void testUpdateSweet() throws Exception {
@@ -100,18 +219,55 @@ class SweetControllerTest {
         request.setPrice(new BigDecimal("3.00"));
 
         SweetResponse response = new SweetResponse(1L, "Updated Chocolate", "Chocolate", 
-                new BigDecimal("3.00"), 100);
+                new BigDecimal("3.00"), 100, 3L);
 
-        when(sweetService.updateSweet(eq(1L), any(UpdateSweetRequest.class))).thenReturn(response);
+        when(sweetService.updateSweet(eq(1L), any(UpdateSweetRequest.class), isNull())).thenReturn(response);
 
         mockMvc.perform(put("/api/sweets/1")
                         .with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3:test-7\""))
                 .andExpect(jsonPath("$.name").value("Updated Chocolate"));
 
-        verify(sweetService, times(1)).updateSweet(eq(1L), any(UpdateSweetRequest.class));
+        verify(sweetService, times(1)).updateSweet(eq(1L), any(UpdateSweetRequest.class), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void testUpdateSweetIfMatch() throws Exception {
+        UpdateSweetRequest request = new UpdateSweetRequest();
+        request.setPrice(new BigDecimal("3.00"));
+
+        when(sweetService.updateSweet(eq(1L), any(UpdateSweetRequest.class), eq(2L))).thenReturn(
+                new SweetResponse(1L, "Chocolate Bar", "Chocolate", new BigDecimal("3.00"), 100, 3L));
+
+        mockMvc.perform(put("/api/sweets/1")
+                        .with(csrf())
+                        .header("If-Match", "\"2:test-6\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3:test-7\""));
+    }
+
+    @Test
+    @WithMockUser
+    void testUpdateSweetStaleIfMatch() throws Exception {
+        UpdateSweetRequest request = new UpdateSweetRequest();
+        request.setPrice(new BigDecimal("3.00"));
+
+        when(sweetService.updateSweet(eq(1L), any(UpdateSweetRequest.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Sweet 1 has changed since version 2", 5L));
+
+        mockMvc.perform(put("/api/sweets/1")
+                        .with(csrf())
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("ETag", "\"5\""));
     }
 
     @Test
@@ -133,7 +289,7 @@ class SweetControllerTest {
         request.setQuantity(10);
 
         SweetResponse response = new SweetResponse(1L, "Chocolate Bar", "Chocolate", 
-                new BigDecimal("2.50"), 90);
+                new BigDecimal("2.50"), 90, 3L);
 
         when(sweetService.purchaseSweet(eq(1L), any(PurchaseRequest.class))).thenReturn(response);
 
@@ -154,7 +310,7 @@ class SweetControllerTest {
         request.setQuantity(50);
 
         SweetResponse response = new SweetResponse(1L, "Chocolate Bar", "Chocolate", 
-                new BigDecimal("2.50"), 150);
+                new BigDecimal("2.50"), 150, 3L);
 
         when(sweetService.restockSweet(eq(1L), any(RestockRequest.class))).thenReturn(response);
 
@@ -167,5 +323,47 @@ class SweetControllerTest {
 
         verify(sweetService, times(1)).restockSweet(eq(1L), any(RestockRequest.class));
     }
-}
 
+    @Test
+    @WithMockUser
+    void testCheckout() throws Exception {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(Arrays.asList(new CheckoutItem(1L, 2), new CheckoutItem(2L, 1)));
+
+        CheckoutResponse response = new CheckoutResponse(true, Arrays.asList(
+                new CheckoutLineResult(1L, 2, true, 98, null),
+                new CheckoutLineResult(2L, 1, true, 49, null)));
+
+        when(sweetService.checkout(any(CheckoutRequest.class))).thenReturn(response);
+
+        mockMvc.perform(post("/api/sweets/checkout")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.lines.length()").value(2));
+
+        verify(sweetService, times(1)).checkout(any(CheckoutRequest.class));
+    }
+
+    @Test
+    @WithMockUser
+    void testCheckoutFailure() throws Exception {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(List.of(new CheckoutItem(1L, 200)));
+
+        CheckoutResponse response = new CheckoutResponse(false, List.of(
+                new CheckoutLineResult(1L, 200, false, 100, "Insufficient stock. Available: 100, Requested: 200")));
+
+        when(sweetService.checkout(any(CheckoutRequest.class))).thenThrow(new CheckoutFailedException(response));
+
+        mockMvc.perform(post("/api/sweets/checkout")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.lines[0].error").exists());
+    }
+}
@@ -0,0 +1,306 @@
+package com.backend.Kata.load;
+
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the whole application on a random port against the embedded H2 profile and
+ * drives mixed traffic over HTTP: login, token refresh, browse, search, purchase and
+ * admin restock, weighted as in {@link #MIX}.
+ * <p>
+ * Tagged {@code load} and only run with {@code mvn -Pload-test test}. Tuned with system
+ * properties, all optional:
+ * <ul>
+ *     <li>{@code kata.load.concurrency} (8) and {@code kata.load.duration-seconds} (20), after
+ *     {@code kata.load.warmup-seconds} (10) of traffic that is not measured, so JIT
+ *     compilation stays out of the tail</li>
+ *     <li>{@code kata.load.slo.p99-ms} (250) and {@code kata.load.slo.p999-ms} (1000) for
+ *     every endpoint but login, which is held to {@code kata.load.slo.login-p99-ms} (2000)
+ *     because BCrypt is slow on purpose</li>
+ *     <li>{@code kata.load.slo.max-error-rate} (0.01), over all requests</li>
+ * </ul>
+ * Throughput and p50/p99/p99.9 per endpoint are printed; any breached SLO fails the run.
+ * <p>
+ * The defaults hold on a single core, where client and server share the CPU. More users
+ * than cores only queue there: at 32 users throughput stays the same and p99 nears one
+ * second, so raise the concurrency together with the SLOs on bigger hosts.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "kata.security.password-hash-target=1ms",
+        "kata.login.threads=4",
+        "kata.login.queue-capacity=1024"
+})
+@ActiveProfiles("h2")
+class MixedTrafficLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("kata.load.concurrency", 8);
+    private static final int DURATION_SECONDS = Integer.getInteger("kata.load.duration-seconds", 20);
+    private static final int WARMUP_SECONDS = Integer.getInteger("kata.load.warmup-seconds", 10);
+    private static final long SLO_P99_MS = Long.getLong("kata.load.slo.p99-ms", 250);
+    private static final long SLO_P999_MS = Long.getLong("kata.load.slo.p999-ms", 1000);
+    private static final long SLO_LOGIN_P99_MS = Long.getLong("kata.load.slo.login-p99-ms", 2000);
+    private static final double SLO_MAX_ERROR_RATE =
+            Double.parseDouble(System.getProperty("kata.load.slo.max-error-rate", "0.01"));
+
+    private static final int SWEETS = 500;
+    private static final String[] CATEGORIES = {"Candy", "Chocolate", "Cookie", "Fudge", "Toffee"};
+    private static final String PASSWORD = "load-password";
+
+    /** Share of requests per endpoint, in percent. */
+    private static final Map<String, Integer> MIX = new LinkedHashMap<>();
+
+    static {
+        MIX.put("login", 2);
+        MIX.put("refresh", 3);
+        MIX.put("browse", 40);
+        MIX.put("search", 30);
+        MIX.put("purchase", 20);
+        MIX.put("restock", 5);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final AtomicLong errors = new AtomicLong();
+
+    private List<Long> sweetIds;
+    private String adminToken;
+    private volatile long measuredFrom;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (sweetRepository.count() < SWEETS) {
+            List<Sweet> sweets = new ArrayList<>(SWEETS);
+            for (int i = 0; i < SWEETS; i++) {
+                sweets.add(new Sweet(null, "Load Sweet " + i, CATEGORIES[i % CATEGORIES.length],
+                        new BigDecimal(i % 40).add(new BigDecimal("0.50")), 1_000_000));
+            }
+            sweetRepository.saveAll(sweets);
+        }
+        sweetIds = sweetRepository.findAll().stream().map(Sweet::getId).toList();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            post("/api/auth/register", null,
+                    Map.of("name", "Load " + i, "email", email(i), "password", PASSWORD));
+        }
+        adminToken = login("admin@admin.com", "admin123").get("token").asString();
+    }
+
+    @Test
+    void testMixedTrafficMeetsSlos() throws Exception {
+        measuredFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long deadline = measuredFrom + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        ExecutorService users = Executors.newFixedThreadPool(CONCURRENCY);
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            int user = i;
+            running.add(users.submit(() -> {
+                runUser(user, deadline);
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get(WARMUP_SECONDS + DURATION_SECONDS + 60, TimeUnit.SECONDS);
+        }
+        users.shutdown();
+
+        long total = report();
+        List<String> breaches = new ArrayList<>();
+        double errorRate = total == 0 ? 1 : errors.get() / (double) total;
+        if (errorRate > SLO_MAX_ERROR_RATE) {
+            breaches.add(String.format("error rate %.4f > %.4f", errorRate, SLO_MAX_ERROR_RATE));
+        }
+        timers.forEach((endpoint, timer) -> {
+            long p99 = percentileMillis(timer, 0.99);
+            long p999 = percentileMillis(timer, 0.999);
+            long p99Limit = endpoint.equals("login") ? SLO_LOGIN_P99_MS : SLO_P99_MS;
+            if (p99 > p99Limit) {
+                breaches.add(endpoint + " p99 " + p99 + " ms > " + p99Limit + " ms");
+            }
+            if (!endpoint.equals("login") && p999 > SLO_P999_MS) {
+                breaches.add(endpoint + " p99.9 " + p999 + " ms > " + SLO_P999_MS + " ms");
+            }
+        });
+        assertTrue(total > 0, "No requests completed");
+        assertTrue(breaches.isEmpty(), () -> "SLO breached: " + String.join("; ", breaches));
+    }
+
+    private void runUser(int user, long deadline) throws Exception {
+        JsonNode tokens = login(email(user), PASSWORD);
+        String token = tokens.get("token").asString();
+        String refreshToken = tokens.get("refreshToken").asString();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (System.nanoTime() < deadline) {
+            String bearer = token;
+            Long id = sweetIds.get(random.nextInt(sweetIds.size()));
+            switch (pick(random.nextInt(100))) {
+                case "login" -> token = timed("login", () -> post("/api/auth/login", null,
+                        Map.of("email", email(user), "password", PASSWORD)), token, "token");
+                case "refresh" -> token = timed("refresh", () -> post("/api/auth/refresh", null,
+                        Map.of("token", refreshToken)), token, "token");
+                case "browse" -> timed("browse", () -> get("/api/sweets?limit=20", bearer), null, null);
+                case "search" -> {
+                    String query = "?category=" + CATEGORIES[random.nextInt(CATEGORIES.length)]
+                            + "&maxPrice=" + random.nextInt(5, 40);
+                    timed("search", () -> get("/api/sweets/search" + query, bearer), null, null);
+                }
+                case "purchase" -> timed("purchase", () -> post("/api/sweets/" + id + "/purchase", bearer,
+                        Map.of("quantity", 1)), null, null);
+                default -> timed("restock", () -> post("/api/sweets/" + id + "/restock", adminToken,
+                        Map.of("quantity", 5)), null, null);
+            }
+        }
+    }
+
+    /**
+     * Runs one request under the endpoint's timer and counts non-2xx answers as errors,
+     * unless it started during the warm-up. With {@code field} set, returns that field of
+     * the JSON body, or {@code current} when the request failed.
+     */
+    private String timed(String endpoint, Request request, String current, String field) {
+        Timer timer = timers.computeIfAbsent(endpoint, name -> Timer.builder("load." + name)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .distributionStatisticExpiry(Duration.ofHours(1))
+                .register(meterRegistry));
+        long start = System.nanoTime();
+        boolean measured = start >= measuredFrom;
+        HttpResponse<String> response;
+        try {
+            response = request.send();
+        } catch (Exception e) {
+            if (measured) {
+                errors.incrementAndGet();
+            }
+            return current;
+        } finally {
+            if (measured) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (response.statusCode() / 100 != 2) {
+            if (measured) {
+                errors.incrementAndGet();
+            }
+            return current;
+        }
+        return field == null ? current : objectMapper.readTree(response.body()).get(field).asString();
+    }
+
+    private long report() {
+        long total = 0;
+        System.out.printf("%d users for %d s, %d errors%n", CONCURRENCY, DURATION_SECONDS, errors.get());
+        System.out.printf("%-9s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms");
+        for (String endpoint : MIX.keySet()) {
+            Timer timer = timers.get(endpoint);
+            if (timer == null || timer.count() == 0) {
+                continue;
+            }
+            total += timer.count();
+            System.out.printf("%-9s %9d %9.1f %9d %9d %9d%n", endpoint, timer.count(),
+                    timer.count() / (double) DURATION_SECONDS,
+                    percentileMillis(timer, 0.5), percentileMillis(timer, 0.99), percentileMillis(timer, 0.999));
+        }
+        System.out.printf("%-9s %9d %9.1f%n", "total", total, total / (double) DURATION_SECONDS);
+        return total;
+    }
+
+    private static long percentileMillis(Timer timer, double percentile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return Math.round(value.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        throw new IllegalStateException("Percentile not published: " + percentile);
+    }
+
+    private static String pick(int roll) {
+        int cumulative = 0;
+        for (Map.Entry<String, Integer> entry : MIX.entrySet()) {
+            cumulative += entry.getValue();
+            if (roll < cumulative) {
+                return entry.getKey();
+            }
+        }
+        return "restock";
+    }
+
+    private JsonNode login(String email, String password) throws Exception {
+        HttpResponse<String> response = post("/api/auth/login", null, Map.of("email", email, "password", password));
+        assertEquals(200, response.statusCode(), response::body);
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        return httpClient.send(request(path, token).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String token, Object body) throws Exception {
+        return httpClient.send(request(path, token)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private static String email(int user) {
+        return "load" + user + "@example.com";
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        HttpResponse<String> send() throws Exception;
+    }
+}
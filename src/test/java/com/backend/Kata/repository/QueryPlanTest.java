@@ -0,0 +1,225 @@
+package com.backend.Kata.repository;
+
+import com.backend.Kata.entities.Role;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.entities.User;
+import com.backend.Kata.support.JpaSliceTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL the repositories actually send and fails when a plan
+ * falls back to scanning the whole table.
+ * <p>
+ * Statements are captured at the JDBC level with their bind values, which are inlined
+ * before explaining. That mirrors MySQL Connector/J's client-side prepared statements and
+ * lets the optimizer drop the {@code :param IS NULL OR ...} branches of unused filters.
+ */
+@JpaSliceTest
+class QueryPlanTest {
+
+    private static final List<String> statements = new ArrayList<>();
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        String[] categories = {"Candy", "Chocolate", "Cookie", "Fudge", "Toffee"};
+        List<Sweet> sweets = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            sweets.add(new Sweet(null, "Sweet " + i, categories[i % categories.length],
+                    new BigDecimal(i % 40).add(new BigDecimal("0.25")), 10));
+        }
+        sweetRepository.saveAllAndFlush(sweets);
+
+        User user = new User();
+        user.setName("Plan");
+        user.setEmail("plan@example.com");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        userRepository.saveAndFlush(user);
+
+        statements.clear();
+    }
+
+    @Test
+    void testSearchByCategoryUsesIndex() {
+        sweetRepository.searchSweets(null, "CANDY", null, null);
+        assertIndexed(lastStatement());
+    }
+
+    @Test
+    void testSearchByCategoryAndPriceUsesIndex() {
+        sweetRepository.searchSweets(null, "candy", new BigDecimal("1.00"), new BigDecimal("5.00"));
+        assertIndexed(lastStatement());
+    }
+
+    @Test
+    void testSearchByPriceRangeUsesIndex() {
+        sweetRepository.searchSweets(null, null, new BigDecimal("1.00"), new BigDecimal("2.00"));
+        assertIndexed(lastStatement());
+    }
+
+    @Test
+    void testSearchPageByCategoryUsesIndex() {
+        sweetRepository.searchSweetsPage(null, "chocolate", null, null, "Sweet 1", 2L, Limit.of(10));
+        assertIndexed(lastStatement());
+    }
+
+    @Test
+    void testFindPageAfterCursorUsesIndex() {
+        sweetRepository.findPage("Sweet 150", 151L, Limit.of(10));
+        assertIndexed(lastStatement());
+    }
+
+    @Test
+    void testGuardedStockUpdatesUseIndex() {
+        Long id = sweetRepository.findAll().get(0).getId();
+        statements.clear();
+
+        sweetRepository.decrementQuantity(id, 1);
+        assertIndexed(lastStatement());
+
+        sweetRepository.incrementQuantity(id, 1);
+        assertIndexed(lastStatement());
+    }
+
+    @Test
+    void testFindUserByEmailUsesIndex() {
+        userRepository.findFirstByEmail("plan@example.com");
+        assertIndexed(lastStatement());
+    }
+
+    @Test
+    void testFindUserByRoleUsesIndex() {
+        userRepository.findByRole(Role.ADMIN);
+        assertIndexed(lastStatement());
+    }
+
+    private void assertIndexed(String sql) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        assertFalse(plan.contains("tableScan"), () -> "Full table scan for:\n" + plan);
+    }
+
+    private static String lastStatement() {
+        assertFalse(statements.isEmpty(), "No statement was executed");
+        return statements.get(statements.size() - 1);
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class StatementCaptureConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CapturingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Wraps every prepared statement so that, once executed, its SQL is recorded with the
+     * bind values written in as literals.
+     */
+    private static class CapturingDataSource extends DelegatingDataSource {
+
+        CapturingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return capture(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return capture(super.getConnection(username, password));
+        }
+
+        private static Connection capture(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                            return capture(statement, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private static PreparedStatement capture(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                            parameters.put(index, name.equals("setNull") ? null : args[1]);
+                        } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                            statements.add(inline(sql, parameters));
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static String inline(String sql, Map<Integer, Object> parameters) {
+            StringBuilder inlined = new StringBuilder();
+            int index = 0;
+            for (char c : sql.toCharArray()) {
+                if (c != '?') {
+                    inlined.append(c);
+                    continue;
+                }
+                Object value = parameters.get(++index);
+                if (value == null) {
+                    inlined.append("NULL");
+                } else if (value instanceof Number || value instanceof Boolean) {
+                    inlined.append(value);
+                } else {
+                    inlined.append('\'').append(value.toString().replace("'", "''")).append('\'');
+                }
+            }
+            return inlined.toString();
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.backend.Kata.repository;
+
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.support.JpaSliceTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaSliceTest
+class SweetRepositoryTest {
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        String[][] rows = {
+                {"Toffee", "Toffee", "2.00"}, {"Candy Cane", "Candy", "0.50"}, {"Fudge", "Fudge", "1.50"},
+                {"Mint", "Candy", "0.75"}, {"Brownie", "Chocolate", "3.00"}, {"Caramel", "Candy", "1.10"},
+                {"Dark Chocolate", "Chocolate", "2.75"}
+        };
+        for (String[] row : rows) {
+            sweetRepository.save(new Sweet(null, row[0], row[1], new BigDecimal(row[2]), 10));
+        }
+    }
+
+    @Test
+    void testFindPageWalksCatalogInNameOrder() {
+        List<String> names = new ArrayList<>();
+        String afterName = null;
+        Long afterId = null;
+        List<Sweet> page;
+        do {
+            page = sweetRepository.findPage(afterName, afterId, Limit.of(3));
+            page.forEach(sweet -> names.add(sweet.getName()));
+            if (!page.isEmpty()) {
+                afterName = page.get(page.size() - 1).getName();
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 3);
+
+        assertEquals(List.of("Brownie", "Candy Cane", "Caramel", "Dark Chocolate", "Fudge", "Mint", "Toffee"), names);
+    }
+
+    @Test
+    void testSearchSweetsPageAppliesFiltersAndSeek() {
+        List<Sweet> first = sweetRepository.searchSweetsPage(null, "candy", null, new BigDecimal("1.00"),
+                null, null, Limit.of(1));
+        assertEquals(List.of("Candy Cane"), first.stream().map(Sweet::getName).toList());
+
+        List<Sweet> second = sweetRepository.searchSweetsPage(null, "candy", null, new BigDecimal("1.00"),
+                first.get(0).getName(), first.get(0).getId(), Limit.of(5));
+        assertEquals(List.of("Mint"), second.stream().map(Sweet::getName).toList());
+    }
+
+    @Test
+    void testDeleteByIdsReportsEachIdAcrossChunks() {
+        List<Long> ids = sweetRepository.findAll().stream().map(Sweet::getId).sorted().toList();
+        List<Long> requested = List.of(ids.get(0), ids.get(1), -1L, ids.get(2));
+
+        int[] deleted = sweetRepository.deleteByIds(requested, 2);
+
+        assertArrayEquals(new int[]{1, 1, 0, 1}, deleted);
+        assertEquals(ids.size() - 3, sweetRepository.count());
+    }
+
+    @Test
+    void testIncrementQuantitiesAddsStockAcrossChunks() {
+        List<Long> ids = sweetRepository.findAll().stream().map(Sweet::getId).sorted().toList();
+        TreeMap<Long, Integer> quantities = new TreeMap<>();
+        quantities.put(-1L, 5);
+        quantities.put(ids.get(0), 5);
+        quantities.put(ids.get(1), 7);
+
+        int[] updated = sweetRepository.incrementQuantities(quantities, 2);
+
+        assertArrayEquals(new int[]{0, 1, 1}, updated);
+        entityManager.clear();
+        assertEquals(15, sweetRepository.findById(ids.get(0)).orElseThrow().getQuantity());
+        assertEquals(17, sweetRepository.findById(ids.get(1)).orElseThrow().getQuantity());
+    }
+}
@@ -0,0 +1,86 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.dto.SignInRequest;
+import com.backend.Kata.entities.Role;
+import com.backend.Kata.entities.User;
+import com.backend.Kata.repository.UserRepository;
+import com.backend.Kata.services.impl.AuthenticationServiceImpl;
+import com.backend.Kata.services.impl.PasswordCheckExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private JWTService jwtService;
+
+    @Mock
+    private PasswordCheckExecutor passwordCheckExecutor;
+
+    @InjectMocks
+    private AuthenticationServiceImpl authenticationService;
+
+    private User user;
+    private SignInRequest request;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1);
+        user.setEmail("user@example.com");
+        user.setPassword("$2a$10$legacy");
+        user.setRole(Role.USER);
+
+        request = new SignInRequest();
+        request.setEmail("user@example.com");
+        request.setPassword("secret");
+
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, "secret", user.getAuthorities()));
+    }
+
+    @Test
+    void testSignInReusesPrincipalWithoutSecondLookup() {
+        when(passwordEncoder.upgradeEncoding(user.getPassword())).thenReturn(false);
+
+        authenticationService.signIn(request);
+
+        verify(jwtService).generateToken(user);
+        verify(userRepository, never()).findFirstByEmail(anyString());
+        verify(userRepository, never()).updatePasswordHash(any(), any(), any());
+    }
+
+    @Test
+    void testOutdatedHashIsReplacedOnSignIn() throws Exception {
+        when(passwordEncoder.upgradeEncoding("$2a$10$legacy")).thenReturn(true);
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}$2a$12$fresh");
+        when(passwordCheckExecutor.run(any())).thenAnswer(inv -> ((Callable<?>) inv.getArgument(0)).call());
+
+        authenticationService.signIn(request);
+
+        verify(userRepository).updatePasswordHash(1, "$2a$10$legacy", "{bcrypt}$2a$12$fresh");
+    }
+}
@@ -0,0 +1,58 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.impl.CatalogExportServiceImpl;
+import com.backend.Kata.support.JpaSliceTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaSliceTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(CatalogExportServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogExportServiceTest {
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @AfterEach
+    void tearDown() {
+        sweetRepository.deleteAll();
+    }
+
+    @Test
+    void testExportWritesOneLinePerSweet() throws IOException {
+        // Given
+        for (int i = 0; i < 250; i++) {
+            sweetRepository.save(new Sweet(null, "Sweet " + i, "Candy", new BigDecimal("1.25"), i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = catalogExportService.exportNdjson(out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(250, rows);
+        assertEquals(250, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Sweet 0\""));
+        assertTrue(lines[249].contains("\"quantity\":249"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.config.CacheConfiguration;
+import com.backend.Kata.dto.ImportReport;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.impl.CatalogImportServiceImpl;
+import com.backend.Kata.services.impl.CatalogVersion;
+import com.backend.Kata.services.impl.InventoryAnalytics;
+import com.backend.Kata.services.impl.InventoryMetrics;
+import com.backend.Kata.services.impl.StockAlerts;
+import com.backend.Kata.services.impl.SweetCache;
+import com.backend.Kata.services.impl.SweetNameIndex;
+import com.backend.Kata.support.JpaSliceTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.boot.validation.autoconfigure.ValidationAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaSliceTest
+@TestPropertySource(properties = "kata.import.batch-size=2")
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({CatalogImportServiceImpl.class, SweetNameIndex.class, SweetCache.class, CatalogVersion.class,
+        CacheConfiguration.class, InventoryAnalytics.class, StockAlerts.class, InventoryMetrics.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogImportServiceTest {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private SweetNameIndex sweetNameIndex;
+
+    @AfterEach
+    void tearDown() {
+        sweetRepository.deleteAll();
+    }
+
+    @Test
+    void testImportCsvUpsertsByName() throws IOException {
+        // Given
+        Sweet existing = new Sweet(null, "Fudge", "Fudge", new BigDecimal("1.00"), 5);
+        sweetRepository.save(existing);
+
+        String csv = """
+                name,category,price,quantity
+                Fudge,Fudge,1.50,40
+                "Toffee, salted",Toffee,2.00,10
+                Mint,Candy,0.75,20
+                Broken,Candy,not-a-price,1
+                Free,Candy,0,1
+                """;
+
+        // When
+        ImportReport report = catalogImportService.importCsv(stream(csv));
+
+        // Then
+        assertEquals(5, report.getRowsRead());
+        assertEquals(3, report.getRowsImported());
+        assertEquals(2, report.getRowsFailed());
+        assertEquals(5, report.getErrors().get(0).getLine());
+        assertEquals(6, report.getErrors().get(1).getLine());
+        assertEquals("Price must be positive", report.getErrors().get(1).getMessage());
+
+        assertEquals(3, sweetRepository.count());
+        Sweet fudge = sweetRepository.findAll().stream()
+                .filter(s -> s.getName().equals("Fudge")).findFirst().orElseThrow();
+        assertEquals(existing.getId(), fudge.getId());
+        assertEquals(40, fudge.getQuantity());
+        assertEquals(0, new BigDecimal("1.50").compareTo(fudge.getPrice()));
+        assertTrue(sweetRepository.findAll().stream().anyMatch(s -> s.getName().equals("Toffee, salted")));
+        assertEquals("Toffee, salted", sweetNameIndex.suggest("salt", 5).get(0).getName());
+    }
+
+    @Test
+    void testImportNdjson() throws IOException {
+        // Given
+        String ndjson = """
+                {"name":"Gummy Bears","category":"Gummy","price":3.10,"quantity":12}
+                {"name":"Jelly Beans","category":"Jelly","price":1.20,"quantity":30}
+                {"name":"Nameless"
+                """;
+
+        // When
+        ImportReport report = catalogImportService.importNdjson(stream(ndjson));
+
+        // Then
+        assertEquals(3, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(1, report.getRowsFailed());
+        assertEquals(3, report.getErrors().get(0).getLine());
+        assertEquals(2, sweetRepository.count());
+    }
+
+    @Test
+    void testImportCsvRequiresHeader() {
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogImportService.importCsv(stream("name,price\nFudge,1.00\n")));
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
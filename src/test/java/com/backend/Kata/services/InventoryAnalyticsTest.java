@@ -0,0 +1,215 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.dto.CategorySales;
+import com.backend.Kata.dto.CategoryStock;
+import com.backend.Kata.dto.InventoryStatsResponse;
+import com.backend.Kata.dto.SalesWindow;
+import com.backend.Kata.dto.SweetSales;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.impl.InventoryAnalytics;
+import com.backend.Kata.services.impl.StockAlerts;
+import com.backend.Kata.support.JpaSliceTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@JpaSliceTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryAnalyticsTest {
+
+    private static final List<Duration> WINDOWS = List.of(Duration.ofHours(1), Duration.ofHours(24), Duration.ofDays(7));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-10-17T10:15:00Z"));
+
+    @AfterEach
+    void tearDown() {
+        sweetRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM sweet_sales_hourly");
+    }
+
+    @Test
+    void testStockAndSalesFollowReportedChanges() {
+        Sweet fudge = sweetRepository.save(new Sweet(null, "Fudge", "Fudge", new BigDecimal("2.00"), 10));
+        Sweet mint = sweetRepository.save(new Sweet(null, "Mint", "Candy", new BigDecimal("0.50"), 40));
+        InventoryAnalytics analytics = analytics();
+        analytics.load();
+
+        analytics.sold(fudge.getId(), "Fudge", 3, new BigDecimal("2.00"));
+        analytics.restocked(Map.of(mint.getId(), 10));
+        InventoryStatsResponse stats = analytics.stats();
+
+        assertEquals(2, stats.getSweets());
+        assertEquals(57, stats.getUnitsInStock());
+        assertEquals(0, new BigDecimal("39.00").compareTo(stats.getInventoryValue()));
+        CategoryStock candy = stats.getCategories().get(0);
+        assertEquals("Candy", candy.getCategory());
+        assertEquals(50, candy.getUnitsInStock());
+        assertEquals(0, new BigDecimal("25.00").compareTo(candy.getInventoryValue()));
+
+        SalesWindow lastHour = window(stats, 1);
+        assertEquals(3, lastHour.getUnitsSold());
+        assertEquals(0, new BigDecimal("6.00").compareTo(lastHour.getRevenue()));
+        assertEquals("Fudge", lastHour.getSweets().get(0).getName());
+        assertEquals("Fudge", lastHour.getCategories().get(0).getCategory());
+
+        analytics.removed(List.of(fudge.getId()));
+        assertEquals(1, analytics.stats().getSweets());
+        assertEquals(3, window(analytics.stats(), 1).getUnitsSold());
+    }
+
+    @Test
+    void testSalesSlideOutOfWindowsAsHoursTurn() {
+        InventoryAnalytics analytics = analytics();
+        analytics.load();
+
+        analytics.sold(1L, "Candy", 2, new BigDecimal("1.00"));
+        clock.advance(Duration.ofHours(2));
+        analytics.sold(1L, "Candy", 1, new BigDecimal("1.00"));
+
+        InventoryStatsResponse stats = analytics.stats();
+        assertEquals(1, window(stats, 1).getUnitsSold());
+        assertEquals(3, window(stats, 24).getUnitsSold());
+        assertEquals(2, stats.getHourly().size());
+
+        // No new sale: only the turning hour moves the windows
+        clock.advance(Duration.ofDays(8));
+        stats = analytics.stats();
+        assertEquals(0, window(stats, 168).getUnitsSold());
+        assertTrue(window(stats, 168).getSweets().isEmpty());
+        assertTrue(stats.getHourly().isEmpty());
+    }
+
+    @Test
+    void testRankingsFollowRevenueAsSalesChange() {
+        InventoryAnalytics analytics = analytics();
+        analytics.load();
+
+        analytics.sold(1L, "Candy", 1, new BigDecimal("1.00"));
+        analytics.sold(2L, "Fudge", 1, new BigDecimal("2.00"));
+        SalesWindow lastHour = window(analytics.stats(), 1);
+        assertEquals(List.of(2L, 1L), lastHour.getSweets().stream().map(SweetSales::getSweetId).toList());
+        assertEquals(List.of("Fudge", "Candy"), lastHour.getCategories().stream().map(CategorySales::getCategory).toList());
+
+        analytics.sold(1L, "Candy", 3, new BigDecimal("1.00"));
+        lastHour = window(analytics.stats(), 1);
+        assertEquals(List.of(1L, 2L), lastHour.getSweets().stream().map(SweetSales::getSweetId).toList());
+        assertEquals(List.of("Candy", "Fudge"), lastHour.getCategories().stream().map(CategorySales::getCategory).toList());
+
+        // Older sales slide out of the hour: equal revenue falls back to key order
+        clock.advance(Duration.ofHours(1));
+        analytics.sold(2L, "Fudge", 1, new BigDecimal("1.00"));
+        analytics.sold(1L, "Candy", 1, new BigDecimal("1.00"));
+        lastHour = window(analytics.stats(), 1);
+        assertEquals(List.of(1L, 2L), lastHour.getSweets().stream().map(SweetSales::getSweetId).toList());
+        assertEquals(List.of(1L, 2L), window(analytics.stats(), 24).getSweets().stream().map(SweetSales::getSweetId).toList());
+    }
+
+    @Test
+    void testCheckpointedSalesAreRestoredAtStartup() {
+        InventoryAnalytics analytics = analytics();
+        analytics.load();
+        analytics.sold(1L, "Candy", 2, new BigDecimal("1.50"));
+        analytics.checkpoint();
+        analytics.sold(1L, "Candy", 1, new BigDecimal("1.50"));
+        analytics.checkpoint();
+
+        InventoryAnalytics restarted = analytics();
+        restarted.load();
+
+        SalesWindow lastDay = window(restarted.stats(), 24);
+        assertEquals(3, lastDay.getUnitsSold());
+        assertEquals(0, new BigDecimal("4.50").compareTo(lastDay.getRevenue()));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sweet_sales_hourly", Integer.class));
+    }
+
+    @Test
+    void testRolledBackSaleIsNotCounted() {
+        InventoryAnalytics analytics = analytics();
+        analytics.load();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            analytics.sold(1L, "Candy", 2, new BigDecimal("1.00"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, window(analytics.stats(), 1).getUnitsSold());
+    }
+
+    @Test
+    void testUnchangedStatsAreServedFromSnapshot() {
+        InventoryAnalytics analytics = analytics();
+        analytics.load();
+
+        InventoryStatsResponse first = analytics.stats();
+        assertSame(first, analytics.stats());
+
+        analytics.sold(1L, "Candy", 1, new BigDecimal("1.00"));
+        assertNotSame(first, analytics.stats());
+    }
+
+    private InventoryAnalytics analytics() {
+        return new InventoryAnalytics(jdbcTemplate, new TransactionTemplate(transactionManager), mock(StockAlerts.class),
+                WINDOWS, clock);
+    }
+
+    private static SalesWindow window(InventoryStatsResponse stats, long hours) {
+        return stats.getSales().stream()
+                .filter(window -> window.getHours() == hours)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
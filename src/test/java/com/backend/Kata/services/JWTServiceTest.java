@@ -0,0 +1,79 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.entities.Role;
+import com.backend.Kata.entities.User;
+import com.backend.Kata.services.impl.JWTServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verification tests for {@link JWTServiceImpl}. What one authenticated request costs is
+ * measured by {@code JwtBenchmark} under {@code src/jmh}.
+ */
+class JWTServiceTest {
+
+    private static final String SIGNING_KEY = "413F4428472B4B6250655368566D5970337336763979244226452948404D6351";
+
+    private JWTServiceImpl jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JWTServiceImpl(100);
+        user = new User();
+        user.setEmail("user@example.com");
+        user.setRole(Role.USER);
+    }
+
+    @Test
+    void testVerifyReturnsClaimsOfIssuedToken() {
+        String token = jwtService.generateToken(user);
+
+        Claims claims = jwtService.verify(token);
+
+        assertEquals("user@example.com", claims.getSubject());
+        assertTrue(jwtService.isTokenValid(claims, user));
+        assertTrue(jwtService.isTokenValid(token, user));
+        assertEquals("user@example.com", jwtService.extractUserName(token));
+    }
+
+    @Test
+    void testRepeatedTokenIsServedFromCache() {
+        String token = jwtService.generateToken(user);
+
+        assertSame(jwtService.verify(token), jwtService.verify(token));
+    }
+
+    @Test
+    void testTokenForOtherUserIsNotValid() {
+        String token = jwtService.generateRefreshToken(new HashMap<>(), user);
+        User other = new User();
+        other.setEmail("other@example.com");
+
+        assertFalse(jwtService.isTokenValid(jwtService.verify(token), other));
+    }
+
+    @Test
+    void testForgedAndExpiredTokensAreRejected() {
+        String token = jwtService.generateToken(user);
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        String expired = Jwts.builder()
+                .subject("user@example.com")
+                .expiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SIGNING_KEY)))
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtService.verify(forged));
+        assertThrows(JwtException.class, () -> jwtService.verify(expired));
+    }
+}
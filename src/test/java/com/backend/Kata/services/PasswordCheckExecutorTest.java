@@ -0,0 +1,85 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.exception.LoginThrottledException;
+import com.backend.Kata.services.impl.PasswordCheckExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordCheckExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordCheckExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordCheckExecutor(meterRegistry, 1, 1, Duration.ofSeconds(2), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testRunReturnsCheckResultAndRecordsLatency() {
+        assertTrue(executor.run(() -> true));
+        assertFalse(executor.run(() -> false));
+
+        assertEquals(2, meterRegistry.get("kata.login.latency").timer().count());
+    }
+
+    @Test
+    void testFailureInCheckIsRethrown() {
+        assertThrows(IllegalArgumentException.class, () -> executor.run(() -> {
+            throw new IllegalArgumentException("bad hash");
+        }));
+    }
+
+    @Test
+    void testFullQueueIsRejectedWithRetryAfter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.run(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.run(() -> true));
+        while (meterRegistry.get("kata.login.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        LoginThrottledException ex = assertThrows(LoginThrottledException.class, () -> executor.run(() -> true));
+        assertEquals(Duration.ofSeconds(2), ex.getRetryAfter());
+        assertEquals(1, meterRegistry.get("kata.login.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCheckPastTimeoutIsCancelledAndRejected() throws Exception {
+        PasswordCheckExecutor slow = new PasswordCheckExecutor(meterRegistry, 1, 1, Duration.ofSeconds(2),
+                Duration.ofMillis(50));
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        LoginThrottledException ex = assertThrows(LoginThrottledException.class, () -> slow.run(() -> {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return true;
+        }));
+        assertEquals(Duration.ofSeconds(2), ex.getRetryAfter());
+        assertEquals(1, meterRegistry.get("kata.login.timeouts").counter().count());
+        // The stalled check was cancelled, so the thread is free again
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(slow.run(() -> true));
+    }
+}
@@ -0,0 +1,154 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.services.impl.PurchaseLedger;
+import com.backend.Kata.support.JpaSliceTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaSliceTest
+@Import({PurchaseLedger.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PurchaseLedgerTest {
+
+    // Ledgers of other cached test contexts may still be writing, so only this user's rows count
+    private static final String BUYER = "buyer@example.com";
+
+    @Autowired
+    private PurchaseLedger purchaseLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(BUYER, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("DELETE FROM purchase_ledger");
+    }
+
+    @Test
+    void testRecordsAreWrittenByTheBackgroundWriter() throws InterruptedException {
+        for (int i = 0; i < 250; i++) {
+            purchaseLedger.record(7L, 2, new BigDecimal("1.25"));
+        }
+
+        awaitRows(250);
+        assertEquals(250, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM purchase_ledger WHERE user_email = ? AND sweet_id = 7 " +
+                "AND quantity = 2 AND unit_price = 1.25", Long.class, BUYER));
+    }
+
+    @Test
+    void testFullBufferMakesTheCallerWrite() throws InterruptedException {
+        // Writer never started: the buffer only fills up until shutdown drains it
+        PurchaseLedger ledger = new PurchaseLedger(jdbcTemplate, transactionManager, new SimpleMeterRegistry(), 2, 100, Duration.ofMillis(10));
+
+        ledger.record(1L, 1, new BigDecimal("1.00"));
+        ledger.record(2L, 1, new BigDecimal("1.00"));
+        ledger.record(3L, 1, new BigDecimal("1.00"));
+        assertEquals(1, rows());
+        assertEquals(3L, writtenSweetId());
+
+        ledger.shutdown();
+        assertEquals(3, rows());
+    }
+
+    @Test
+    void testRolledBackPurchaseLeavesNoRecord() throws InterruptedException {
+        PurchaseLedger ledger = new PurchaseLedger(jdbcTemplate, transactionManager, new SimpleMeterRegistry(), 16, 100, Duration.ofMillis(10));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> {
+            ledger.record(1L, 1, new BigDecimal("1.00"));
+            status.setRollbackOnly();
+        });
+        tx.executeWithoutResult(status -> ledger.record(2L, 1, new BigDecimal("1.00")));
+        ledger.shutdown();
+
+        assertEquals(1, rows());
+        assertEquals(2L, writtenSweetId());
+    }
+
+    @Test
+    void testCallerWriteAfterCommitIsCommitted() throws InterruptedException {
+        PurchaseLedger ledger = new PurchaseLedger(jdbcTemplate, transactionManager, new SimpleMeterRegistry(), 1, 100,
+                Duration.ofMillis(10));
+        ledger.record(1L, 1, new BigDecimal("1.00"));
+
+        // Buffer full: the caller inserts from afterCommit, when the purchase's connection no longer commits
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> ledger.record(2L, 1, new BigDecimal("1.00")));
+
+        assertEquals(1, rows());
+        assertEquals(2L, writtenSweetId());
+        ledger.shutdown();
+        assertEquals(2, rows());
+    }
+
+    @Test
+    void testFailedBatchIsNotPartlyWrittenOnRetry() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PurchaseLedger ledger = new PurchaseLedger(jdbcTemplate, transactionManager, registry, 16, 100, Duration.ofMillis(10));
+        // Both queued before the writer starts, so they go out as one batch; the second overflows DECIMAL(10, 2)
+        ledger.record(1L, 1, new BigDecimal("1.00"));
+        ledger.record(2L, 1, new BigDecimal("100000000000.00"));
+
+        ledger.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (registry.get("kata.ledger.failures").counter().count() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        ledger.shutdown();
+
+        assertEquals(2, registry.get("kata.ledger.failures").counter().count());
+        assertEquals(0, rows());
+    }
+
+    private long rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM purchase_ledger WHERE user_email = ?", Long.class, BUYER);
+    }
+
+    private Long writtenSweetId() {
+        return jdbcTemplate.queryForObject("SELECT sweet_id FROM purchase_ledger WHERE user_email = ?", Long.class, BUYER);
+    }
+
+    private void awaitRows(long expected) throws InterruptedException {
+        // The writer counts a batch after inserting it, so wait for both
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while ((rows() < expected || writtenByWriter() < expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, rows());
+        assertEquals(expected, writtenByWriter());
+    }
+
+    private double writtenByWriter() {
+        return meterRegistry.get("kata.ledger.records").tag("path", "writer").counter().count();
+    }
+}
@@ -0,0 +1,118 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.dto.StockAlert;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.impl.InventoryMetrics;
+import com.backend.Kata.services.impl.StockAlerts;
+import com.backend.Kata.support.JpaSliceTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaSliceTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockAlertsTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StockAlerts stockAlerts;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stockAlerts = stockAlerts();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sweetRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM category_reorder_threshold");
+    }
+
+    @Test
+    void testStockHoveringAtThresholdAlertsOnce() {
+        stockAlerts.stockChanged(1L, "Fudge", "Fudge", 6);
+        stockAlerts.stockChanged(1L, "Fudge", "Fudge", 5);
+        stockAlerts.stockChanged(1L, "Fudge", "Fudge", 4);
+        stockAlerts.stockChanged(1L, "Fudge", "Fudge", 6);
+        stockAlerts.stockChanged(1L, "Fudge", "Fudge", 5);
+
+        assertEquals(1, alerts("sent"));
+        assertEquals(1, alerts("debounced"));
+        assertEquals(StockAlert.Level.LOW, stockAlerts.activeAlerts().get(0).getLevel());
+
+        // Running out is worse than the last alert and is never held back
+        stockAlerts.stockChanged(1L, "Fudge", "Fudge", 0);
+        assertEquals(2, alerts("sent"));
+        assertEquals(StockAlert.Level.OUT_OF_STOCK, stockAlerts.activeAlerts().get(0).getLevel());
+
+        stockAlerts.stockChanged(1L, "Fudge", "Fudge", 50);
+        assertTrue(stockAlerts.activeAlerts().isEmpty());
+    }
+
+    @Test
+    void testRunningOutAgainIsAlertedWithinDebounce() {
+        stockAlerts.stockChanged(1L, "Fudge", "Fudge", 0);
+        stockAlerts.stockChanged(1L, "Fudge", "Fudge", 50);
+        stockAlerts.stockChanged(1L, "Fudge", "Fudge", 0);
+
+        assertEquals(2, alerts("sent"));
+        assertEquals(0, alerts("debounced"));
+        assertEquals(StockAlert.Level.OUT_OF_STOCK, stockAlerts.activeAlerts().get(0).getLevel());
+    }
+
+    @Test
+    void testSweetThresholdWinsOverCategoryThreshold() {
+        Sweet mint = sweetRepository.save(new Sweet(null, "Mint", "Candy", new BigDecimal("0.50"), 15));
+        stockAlerts.stockChanged(mint.getId(), "Mint", "Candy", 15);
+        stockAlerts.stockChanged(2L, "Toffee", "Candy", 12);
+        assertTrue(stockAlerts.activeAlerts().isEmpty());
+
+        stockAlerts.setCategoryThreshold("Candy", 20);
+        assertEquals(2, stockAlerts.activeAlerts().size());
+
+        stockAlerts.setSweetThreshold(mint.getId(), 10);
+        List<StockAlert> active = stockAlerts.activeAlerts();
+        assertEquals(1, active.size());
+        assertEquals(2L, active.get(0).getSweetId());
+        assertEquals(20, active.get(0).getThreshold());
+
+        // Thresholds are stored and picked up by the next instance
+        StockAlerts restarted = stockAlerts();
+        restarted.loadThresholds();
+        assertEquals(10, restarted.thresholds().getSweets().get(mint.getId()));
+        assertEquals(20, restarted.thresholds().getCategories().get("Candy"));
+    }
+
+    @Test
+    void testThresholdForUnknownSweetIsRejected() {
+        assertThrows(RuntimeException.class, () -> stockAlerts.setSweetThreshold(999_999L, 3));
+        assertTrue(stockAlerts.thresholds().getSweets().isEmpty());
+    }
+
+    private StockAlerts stockAlerts() {
+        return new StockAlerts(jdbcTemplate, new InventoryMetrics(meterRegistry), 5, Duration.ofHours(1),
+                Duration.ofMinutes(1));
+    }
+
+    private double alerts(String outcome) {
+        return meterRegistry.get("kata.inventory.stock.alerts").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,161 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.config.CacheConfiguration;
+import com.backend.Kata.dto.CacheStatsResponse;
+import com.backend.Kata.dto.CreateSweetRequest;
+import com.backend.Kata.dto.PurchaseRequest;
+import com.backend.Kata.dto.SweetResponse;
+import com.backend.Kata.dto.UpdateSweetRequest;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.impl.CatalogVersion;
+import com.backend.Kata.services.impl.InventoryAnalytics;
+import com.backend.Kata.services.impl.InventoryMetrics;
+import com.backend.Kata.services.impl.PurchaseLedger;
+import com.backend.Kata.services.impl.StockAlerts;
+import com.backend.Kata.services.impl.SweetCache;
+import com.backend.Kata.services.impl.SweetNameIndex;
+import com.backend.Kata.services.impl.SweetServiceImpl;
+import com.backend.Kata.support.JpaSliceTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.ConfigurableTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaSliceTest
+@Import({SweetServiceImpl.class, SweetNameIndex.class, SweetCache.class, CatalogVersion.class,
+        CacheConfiguration.class, InventoryMetrics.class, PurchaseLedger.class, InventoryAnalytics.class,
+        StockAlerts.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SweetCacheTest {
+
+    @Autowired
+    private SweetService sweetService;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private SweetCache sweetCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        sweetRepository.deleteAll();
+        sweetCache.clear();
+    }
+
+    @Test
+    void testRepeatedLookupIsServedFromCache() {
+        Long id = createSweet("Cached Fudge").getId();
+        CacheStatsResponse before = stats(SweetCache.SWEETS);
+
+        sweetService.getSweetById(id);
+        sweetService.getSweetById(id);
+
+        CacheStatsResponse after = stats(SweetCache.SWEETS);
+        assertEquals(1, after.getMisses() - before.getMisses());
+        assertEquals(1, after.getHits() - before.getHits());
+    }
+
+    @Test
+    void testPurchaseAndUpdateRefreshCachedSweet() {
+        Long id = createSweet("Cached Toffee").getId();
+        sweetService.getSweetById(id);
+
+        PurchaseRequest purchase = new PurchaseRequest();
+        purchase.setQuantity(3);
+        sweetService.purchaseSweet(id, purchase);
+        assertEquals(7, sweetService.getSweetById(id).getQuantity());
+
+        UpdateSweetRequest update = new UpdateSweetRequest();
+        update.setPrice(new BigDecimal("4.00"));
+        sweetService.updateSweet(id, update, null);
+        assertEquals(0, new BigDecimal("4.00").compareTo(sweetService.getSweetById(id).getPrice()));
+    }
+
+    @Test
+    void testWritesDropCachedCatalog() {
+        createSweet("Cached Mint");
+        assertEquals(1, sweetService.getAllSweets().size());
+
+        CreateSweetRequest request = new CreateSweetRequest();
+        request.setName("Cached Caramel");
+        request.setCategory("Candy");
+        request.setPrice(new BigDecimal("1.20"));
+        request.setQuantity(5);
+        Long id = sweetService.createSweet(request).getId();
+        assertEquals(2, sweetService.getAllSweets().size());
+
+        sweetService.deleteSweet(id);
+        assertEquals(1, sweetService.getAllSweets().size());
+        assertThrows(RuntimeException.class, () -> sweetService.getSweetById(id));
+    }
+
+    @Test
+    void testGetBetweenCommitAndEvictionKeepsTheOldTag() {
+        Long id = createSweet("Tagged Fudge").getId();
+        sweetService.getSweetById(id);
+        String before = catalogVersion.value();
+
+        // The update commits inside the service and refreshes the cache after returning;
+        // a GET landing in between reads the tag, then the cached body
+        Thread caller = Thread.currentThread();
+        List<String> seen = new ArrayList<>();
+        TransactionExecutionListener getInBetween = new TransactionExecutionListener() {
+            @Override
+            public void afterCommit(TransactionExecution transaction, Throwable failure) {
+                if (Thread.currentThread() == caller) {
+                    seen.add(catalogVersion.value());
+                    seen.add(cacheManager.getCache(SweetCache.SWEETS).get(id, SweetResponse.class).getName());
+                }
+            }
+        };
+        ConfigurableTransactionManager listeners = (ConfigurableTransactionManager) transactionManager;
+        listeners.addListener(getInBetween);
+        try {
+            UpdateSweetRequest update = new UpdateSweetRequest();
+            update.setName("Renamed Fudge");
+            sweetService.updateSweet(id, update, null);
+        } finally {
+            listeners.getTransactionExecutionListeners().remove(getInBetween);
+        }
+
+        assertEquals(List.of(before, "Tagged Fudge"), seen);
+        assertNotEquals(before, catalogVersion.value());
+        assertEquals("Renamed Fudge", sweetService.getSweetById(id).getName());
+    }
+
+    private Sweet createSweet(String name) {
+        return sweetRepository.save(new Sweet(null, name, "Candy", new BigDecimal("1.00"), 10));
+    }
+
+    private CacheStatsResponse stats(String name) {
+        return sweetCache.stats().stream()
+                .filter(s -> s.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
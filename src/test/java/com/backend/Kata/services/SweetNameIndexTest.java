@@ -0,0 +1,88 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.dto.SweetSuggestion;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.impl.SweetNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SweetNameIndexTest {
+
+    @Mock
+    private SweetRepository sweetRepository;
+
+    private SweetNameIndex sweetNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(sweetRepository.findAllSuggestions()).thenReturn(List.of(
+                new SweetSuggestion(1L, "Chocolate Bar", "Chocolate"),
+                new SweetSuggestion(2L, "Dark Chocolate", "Chocolate"),
+                new SweetSuggestion(3L, "Choco Chip Cookie", "Cookie"),
+                new SweetSuggestion(4L, "Candy Cane", "Candy"),
+                new SweetSuggestion(5L, "Milk Chocolate Truffle", "Chocolate")
+        ));
+        sweetNameIndex = new SweetNameIndex(sweetRepository);
+        sweetNameIndex.reload();
+    }
+
+    @Test
+    void testPrefixMatchesComeFirstThenInfix() {
+        List<SweetSuggestion> results = sweetNameIndex.suggest("Choc", 10);
+
+        assertEquals(List.of("Choco Chip Cookie", "Chocolate Bar", "Dark Chocolate", "Milk Chocolate Truffle"),
+                results.stream().map(SweetSuggestion::getName).toList());
+    }
+
+    @Test
+    void testShortQueryMatchesPrefixOnly() {
+        List<SweetSuggestion> results = sweetNameIndex.suggest("ca", 10);
+
+        assertEquals(List.of("Candy Cane"), results.stream().map(SweetSuggestion::getName).toList());
+    }
+
+    @Test
+    void testLimitIsApplied() {
+        assertEquals(2, sweetNameIndex.suggest("chocolate", 2).size());
+    }
+
+    @Test
+    void testPutAndRemoveKeepIndexCurrent() {
+        sweetNameIndex.put(new SweetSuggestion(4L, "Peppermint Cane", "Candy"));
+        sweetNameIndex.remove(1L);
+
+        assertTrue(sweetNameIndex.suggest("candy", 10).isEmpty());
+        assertEquals("Peppermint Cane", sweetNameIndex.suggest("mint", 10).get(0).getName());
+        assertTrue(sweetNameIndex.suggest("bar", 10).isEmpty());
+    }
+
+    @Test
+    void testReloadKeepsServingThePreviousIndexUntilSwapped() {
+        List<Integer> seenDuringReload = new ArrayList<>();
+        when(sweetRepository.findAllSuggestions()).thenAnswer(invocation -> {
+            seenDuringReload.add(sweetNameIndex.suggest("choc", 10).size());
+            return List.of(new SweetSuggestion(6L, "Chocolate Fudge", "Chocolate"));
+        });
+
+        sweetNameIndex.reload();
+
+        assertEquals(List.of(4), seenDuringReload);
+        assertEquals(List.of("Chocolate Fudge"),
+                sweetNameIndex.suggest("choc", 10).stream().map(SweetSuggestion::getName).toList());
+    }
+
+    @Test
+    void testBlankQuery() {
+        assertTrue(sweetNameIndex.suggest("  ", 10).isEmpty());
+    }
+}
@@ -0,0 +1,139 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.config.CacheConfiguration;
+import com.backend.Kata.dto.PurchaseRequest;
+import com.backend.Kata.dto.UpdateSweetRequest;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.impl.CatalogVersion;
+import com.backend.Kata.services.impl.InventoryAnalytics;
+import com.backend.Kata.services.impl.InventoryMetrics;
+import com.backend.Kata.services.impl.PurchaseLedger;
+import com.backend.Kata.services.impl.StockAlerts;
+import com.backend.Kata.services.impl.SweetCache;
+import com.backend.Kata.services.impl.SweetNameIndex;
+import com.backend.Kata.services.impl.SweetServiceImpl;
+import com.backend.Kata.support.JpaSliceTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress test for the purchase path: many threads buy the same sweet at once and the
+ * stock must never go below zero nor sell more units than were available.
+ */
+@JpaSliceTest
+@Import({SweetServiceImpl.class, SweetNameIndex.class, SweetCache.class, CatalogVersion.class,
+        CacheConfiguration.class, InventoryMetrics.class, PurchaseLedger.class, InventoryAnalytics.class,
+        StockAlerts.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SweetPurchaseConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int PURCHASES = 4000;
+    private static final int INITIAL_STOCK = 2000;
+
+    @Autowired
+    private SweetService sweetService;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @AfterEach
+    void tearDown() {
+        sweetRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentPurchasesNeverOversell() throws InterruptedException {
+        Long id = createSweet("Atomic Toffee").getId();
+        PurchaseRequest request = new PurchaseRequest();
+        request.setQuantity(1);
+        RunResult atomic = run(() -> sweetService.purchaseSweet(id, request));
+        int remaining = sweetRepository.findById(id).orElseThrow().getQuantity();
+
+        assertEquals(INITIAL_STOCK, atomic.succeeded);
+        assertEquals(PURCHASES - INITIAL_STOCK, atomic.rejected);
+        assertEquals(0, remaining);
+    }
+
+    @Test
+    void testConcurrentStockChangesNeverLosePurchases() throws InterruptedException {
+        // Every fourth task is an admin stock change without If-Match racing the purchases:
+        // version conflicts are retried on a fresh read, so the change adds to what is left.
+        Long id = createSweet("Versioned Toffee").getId();
+        PurchaseRequest purchase = new PurchaseRequest();
+        purchase.setQuantity(1);
+        AtomicInteger task = new AtomicInteger();
+        AtomicInteger purchased = new AtomicInteger();
+        AtomicInteger edited = new AtomicInteger();
+
+        run(() -> {
+            int n = task.getAndIncrement();
+            if (n % 4 == 0) {
+                UpdateSweetRequest edit = new UpdateSweetRequest();
+                edit.setQuantityChange(2);
+                sweetService.updateSweet(id, edit, null);
+                edited.incrementAndGet();
+            } else {
+                sweetService.purchaseSweet(id, purchase);
+                purchased.incrementAndGet();
+            }
+        });
+        int remaining = sweetRepository.findById(id).orElseThrow().getQuantity();
+
+        assertEquals(INITIAL_STOCK - purchased.get() + 2 * edited.get(), remaining);
+        assertTrue(edited.get() > 0);
+    }
+
+    private Sweet createSweet(String name) {
+        Sweet sweet = new Sweet();
+        sweet.setName(name);
+        sweet.setCategory("Toffee");
+        sweet.setPrice(new BigDecimal("1.00"));
+        sweet.setQuantity(INITIAL_STOCK);
+        return sweetRepository.save(sweet);
+    }
+
+    private RunResult run(Runnable purchase) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        for (int i = 0; i < PURCHASES; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    purchase.run();
+                    succeeded.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        return new RunResult(succeeded.get(), rejected.get());
+    }
+
+    private record RunResult(int succeeded, int rejected) {
+    }
+}
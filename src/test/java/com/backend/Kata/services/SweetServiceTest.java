@@ -2,7 +2,14 @@ package com.backend.Kata.services;
 
 import com.backend.Kata.dto.*;
 import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.exception.CheckoutFailedException;
+import com.backend.Kata.exception.PreconditionFailedException;
 import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.impl.InventoryAnalytics;
+import com.backend.Kata.services.impl.InventoryMetrics;
+import com.backend.Kata.services.impl.PurchaseLedger;
+import com.backend.Kata.services.impl.SweetNameIndex;
+import com.backend.Kata.services.impl.SweetCache;
 import com.backend.Kata.services.impl.SweetServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,11 +17,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,6 +38,24 @@ class SweetServiceTest {
     @Mock
     private SweetRepository sweetRepository;
 
+    @Mock
+    private SweetCache sweetCache;
+
+    @Mock
+    private InventoryMetrics inventoryMetrics;
+
+    @Mock
+    private SweetNameIndex sweetNameIndex;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PurchaseLedger purchaseLedger;
+
+    @Mock
+    private InventoryAnalytics inventoryAnalytics;
+
     @InjectMocks
     private SweetServiceImpl sweetService;
 
@@ -85,6 +115,43 @@ class SweetServiceTest {
         verify(sweetRepository, times(1)).findAll();
     }
 
+    @Test
+    void testGetSweetsPage() {
+        // Given
+        Sweet sweet2 = new Sweet(2L, "Candy", "Candy", new BigDecimal("1.00"), 50);
+        Sweet sweet3 = new Sweet(3L, "Fudge", "Fudge", new BigDecimal("1.50"), 20);
+
+        when(sweetRepository.findPage(null, null, Limit.of(3)))
+                .thenReturn(Arrays.asList(sweet2, testSweet, sweet3));
+
+        // When
+        SweetPage page = sweetService.getSweetsPage(null, 2);
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        assertEquals("Chocolate Bar", page.getItems().get(1).getName());
+        assertEquals(new SweetCursor("Chocolate Bar", 1L), SweetCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void testGetSweetsPageAfterCursor() {
+        // Given
+        String cursor = new SweetCursor("Chocolate Bar", 1L).encode();
+        when(sweetRepository.findPage("Chocolate Bar", 1L, Limit.of(3))).thenReturn(List.of(testSweet));
+
+        // When
+        SweetPage page = sweetService.getSweetsPage(cursor, 2);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetSweetsPageInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> sweetService.getSweetsPage("not a cursor", 2));
+    }
+
     @Test
     void testGetSweetById() {
         // Given
@@ -117,29 +184,105 @@ class SweetServiceTest {
         request.setName("Updated Chocolate");
         request.setPrice(new BigDecimal("3.00"));
 
+        runTransactionsInline();
         when(sweetRepository.findById(1L)).thenReturn(Optional.of(testSweet));
-        when(sweetRepository.save(any(Sweet.class))).thenReturn(testSweet);
+        when(sweetRepository.saveAndFlush(any(Sweet.class))).thenReturn(testSweet);
 
         // When
-        SweetResponse response = sweetService.updateSweet(1L, request);
+        SweetResponse response = sweetService.updateSweet(1L, request, null);
 
         // Then
         assertNotNull(response);
         verify(sweetRepository, times(1)).findById(1L);
-        verify(sweetRepository, times(1)).save(any(Sweet.class));
+        verify(sweetRepository, times(1)).saveAndFlush(any(Sweet.class));
+    }
+
+    @Test
+    void testUpdateSweetStaleVersionFailsPrecondition() {
+        // Given
+        UpdateSweetRequest request = new UpdateSweetRequest();
+        request.setPrice(new BigDecimal("3.00"));
+
+        testSweet.setVersion(5L);
+        runTransactionsInline();
+        when(sweetRepository.findById(1L)).thenReturn(Optional.of(testSweet));
+
+        // When & Then
+        PreconditionFailedException ex = assertThrows(PreconditionFailedException.class,
+                () -> sweetService.updateSweet(1L, request, 4L));
+        assertEquals(5L, ex.getCurrentVersion());
+        verify(sweetRepository, never()).saveAndFlush(any(Sweet.class));
+    }
+
+    @Test
+    void testStockChangeRetriesVersionConflict() {
+        // Given
+        UpdateSweetRequest request = new UpdateSweetRequest();
+        request.setQuantityChange(-10);
+
+        runTransactionsInline();
+        // Each attempt reads the row afresh; the retry sees a purchase of 5 made in between
+        when(sweetRepository.findById(1L))
+                .thenReturn(Optional.of(new Sweet(1L, "Chocolate Bar", "Chocolate", new BigDecimal("2.50"), 100)))
+                .thenReturn(Optional.of(new Sweet(1L, "Chocolate Bar", "Chocolate", new BigDecimal("2.50"), 95)));
+        when(sweetRepository.saveAndFlush(any(Sweet.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Sweet.class, 1L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        SweetResponse response = sweetService.updateSweet(1L, request, null);
+
+        // Then
+        assertEquals(85, response.getQuantity());
+        verify(sweetRepository, times(2)).findById(1L);
+        verify(inventoryMetrics, times(1)).contentionRetry();
+    }
+
+    @Test
+    void testOtherUpdatesAreNotRetried() {
+        // Given
+        UpdateSweetRequest request = new UpdateSweetRequest();
+        request.setPrice(new BigDecimal("3.00"));
+
+        runTransactionsInline();
+        when(sweetRepository.findById(1L)).thenReturn(Optional.of(testSweet));
+        when(sweetRepository.saveAndFlush(any(Sweet.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Sweet.class, 1L));
+
+        // When & Then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> sweetService.updateSweet(1L, request, null));
+        verify(sweetRepository, times(1)).saveAndFlush(any(Sweet.class));
+        verify(inventoryMetrics, never()).contentionRetry();
+    }
+
+    @Test
+    void testStockChangeGivesUpAfterBoundedRetries() {
+        // Given
+        UpdateSweetRequest request = new UpdateSweetRequest();
+        request.setQuantityChange(5);
+
+        runTransactionsInline();
+        when(sweetRepository.findById(1L)).thenReturn(Optional.of(testSweet));
+        when(sweetRepository.saveAndFlush(any(Sweet.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Sweet.class, 1L));
+
+        // When & Then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> sweetService.updateSweet(1L, request, null));
+        verify(sweetRepository, times(3)).saveAndFlush(any(Sweet.class));
     }
 
     @Test
     void testDeleteSweet() {
         // Given
-        when(sweetRepository.existsById(1L)).thenReturn(true);
+        when(sweetRepository.deleteSweetById(1L)).thenReturn(1);
 
         // When
         sweetService.deleteSweet(1L);
 
         // Then
-        verify(sweetRepository, times(1)).existsById(1L);
-        verify(sweetRepository, times(1)).deleteById(1L);
+        verify(sweetRepository, times(1)).deleteSweetById(1L);
+        verify(sweetRepository, never()).existsById(anyLong());
+        verify(sweetNameIndex, times(1)).removeAfterCommit(1L);
     }
 
     @Test
@@ -148,20 +291,20 @@ class SweetServiceTest {
         PurchaseRequest request = new PurchaseRequest();
         request.setQuantity(10);
 
+        testSweet.setQuantity(90);
+        when(sweetRepository.decrementQuantity(1L, 10)).thenReturn(1);
         when(sweetRepository.findById(1L)).thenReturn(Optional.of(testSweet));
-        when(sweetRepository.save(any(Sweet.class))).thenAnswer(invocation -> {
-            Sweet saved = invocation.getArgument(0);
-            assertEquals(90, saved.getQuantity());
-            return saved;
-        });
 
         // When
         SweetResponse response = sweetService.purchaseSweet(1L, request);
 
         // Then
         assertNotNull(response);
-        verify(sweetRepository, times(1)).findById(1L);
-        verify(sweetRepository, times(1)).save(any(Sweet.class));
+        assertEquals(90, response.getQuantity());
+        verify(sweetRepository, times(1)).decrementQuantity(1L, 10);
+        verify(sweetRepository, never()).save(any(Sweet.class));
+        verify(purchaseLedger, times(1)).record(1L, 10, new BigDecimal("2.50"));
+        verify(inventoryAnalytics, times(1)).sold(1L, "Chocolate", 10, new BigDecimal("2.50"));
     }
 
     @Test
@@ -170,34 +313,142 @@ class SweetServiceTest {
         PurchaseRequest request = new PurchaseRequest();
         request.setQuantity(150); // More than available
 
+        when(sweetRepository.decrementQuantity(1L, 150)).thenReturn(0);
         when(sweetRepository.findById(1L)).thenReturn(Optional.of(testSweet));
 
         // When & Then
-        assertThrows(RuntimeException.class, () -> sweetService.purchaseSweet(1L, request));
-        verify(sweetRepository, times(1)).findById(1L);
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> sweetService.purchaseSweet(1L, request));
+        assertTrue(ex.getMessage().startsWith("Insufficient stock"));
+        verify(sweetRepository, times(1)).decrementQuantity(1L, 150);
         verify(sweetRepository, never()).save(any(Sweet.class));
     }
 
+    @Test
+    void testPurchaseSweetNotFound() {
+        // Given
+        PurchaseRequest request = new PurchaseRequest();
+        request.setQuantity(1);
+
+        when(sweetRepository.decrementQuantity(999L, 1)).thenReturn(0);
+        when(sweetRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> sweetService.purchaseSweet(999L, request));
+        assertTrue(ex.getMessage().startsWith("Sweet not found"));
+    }
+
     @Test
     void testRestockSweet() {
         // Given
         RestockRequest request = new RestockRequest();
         request.setQuantity(50);
 
+        testSweet.setQuantity(150);
+        when(sweetRepository.incrementQuantity(1L, 50)).thenReturn(1);
         when(sweetRepository.findById(1L)).thenReturn(Optional.of(testSweet));
-        when(sweetRepository.save(any(Sweet.class))).thenAnswer(invocation -> {
-            Sweet saved = invocation.getArgument(0);
-            assertEquals(150, saved.getQuantity());
-            return saved;
-        });
 
         // When
         SweetResponse response = sweetService.restockSweet(1L, request);
 
         // Then
         assertNotNull(response);
-        verify(sweetRepository, times(1)).findById(1L);
-        verify(sweetRepository, times(1)).save(any(Sweet.class));
+        assertEquals(150, response.getQuantity());
+        verify(sweetRepository, times(1)).incrementQuantity(1L, 50);
+        verify(sweetRepository, never()).save(any(Sweet.class));
+    }
+
+    @Test
+    void testCheckout() {
+        // Given
+        Sweet sweet2 = new Sweet();
+        sweet2.setId(2L);
+        sweet2.setName("Candy");
+        sweet2.setCategory("Candy");
+        sweet2.setPrice(new BigDecimal("1.00"));
+        sweet2.setQuantity(45);
+
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(Arrays.asList(
+                new CheckoutItem(2L, 3), new CheckoutItem(1L, 10), new CheckoutItem(2L, 2)));
+
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        expected.put(1L, 10);
+        expected.put(2L, 5);
+        testSweet.setQuantity(90);
+        when(sweetRepository.decrementQuantities(expected)).thenReturn(new int[]{1, 1});
+        when(sweetRepository.findAllById(expected.keySet())).thenReturn(Arrays.asList(testSweet, sweet2));
+
+        // When
+        CheckoutResponse response = sweetService.checkout(request);
+
+        // Then
+        assertTrue(response.isSuccess());
+        assertEquals(2, response.getLines().size());
+        assertEquals(1L, response.getLines().get(0).getSweetId());
+        assertEquals(90, response.getLines().get(0).getRemaining());
+        assertEquals(5, response.getLines().get(1).getQuantity());
+        verify(sweetRepository, times(1)).decrementQuantities(expected);
+    }
+
+    @Test
+    void testCheckoutInsufficientStockFailsWholeOrder() {
+        // Given
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(Arrays.asList(new CheckoutItem(1L, 10), new CheckoutItem(2L, 1)));
+
+        testSweet.setQuantity(90);
+        when(sweetRepository.decrementQuantities(any())).thenReturn(new int[]{1, 0});
+        when(sweetRepository.findAllById(any())).thenReturn(List.of(testSweet));
+
+        // When & Then
+        CheckoutFailedException ex = assertThrows(CheckoutFailedException.class, () -> sweetService.checkout(request));
+        CheckoutResponse response = ex.getResponse();
+        assertFalse(response.isSuccess());
+        assertTrue(response.getLines().get(0).isSuccess());
+        assertEquals(100, response.getLines().get(0).getRemaining());
+        assertFalse(response.getLines().get(1).isSuccess());
+        assertEquals("Sweet not found with id: 2", response.getLines().get(1).getError());
+    }
+
+    @Test
+    void testDeleteSweetsReportsMissingIds() {
+        // Given
+        BulkDeleteRequest request = new BulkDeleteRequest();
+        request.setIds(Arrays.asList(3L, 1L, 2L, 1L));
+        when(sweetRepository.deleteByIds(eq(List.of(1L, 2L, 3L)), anyInt())).thenReturn(new int[]{1, 0, 1});
+
+        // When
+        BulkOperationResponse response = sweetService.deleteSweets(request);
+
+        // Then
+        assertEquals(List.of(1L, 3L), response.getAffectedIds());
+        assertEquals(List.of(2L), response.getMissingIds());
+        verify(sweetNameIndex, times(1)).removeAfterCommit(List.of(1L, 3L));
+        verify(sweetCache, times(1)).evict(List.of(1L, 3L));
+        verify(inventoryAnalytics, times(1)).removed(List.of(1L, 3L));
+        verify(sweetRepository, never()).deleteSweetById(anyLong());
+    }
+
+    @Test
+    void testRestockSweetsMergesItemsIntoOneBatch() {
+        // Given
+        BulkRestockRequest request = new BulkRestockRequest();
+        request.setItems(Arrays.asList(new RestockItem(2L, 5), new RestockItem(1L, 10), new RestockItem(2L, 5)));
+
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        expected.put(1L, 10);
+        expected.put(2L, 10);
+        when(sweetRepository.incrementQuantities(eq(expected), anyInt())).thenReturn(new int[]{1, 1});
+
+        // When
+        BulkOperationResponse response = sweetService.restockSweets(request);
+
+        // Then
+        assertEquals(List.of(1L, 2L), response.getAffectedIds());
+        assertTrue(response.getMissingIds().isEmpty());
+        verify(sweetCache, times(1)).evict(List.of(1L, 2L));
+        verify(inventoryAnalytics, times(1)).restocked(expected);
+        verify(sweetRepository, never()).incrementQuantity(anyLong(), anyInt());
     }
 
     @Test
@@ -227,5 +478,9 @@ class SweetServiceTest {
                 new BigDecimal("5.00")
         );
     }
-}
 
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
@@ -0,0 +1,81 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.config.CacheConfiguration;
+import com.backend.Kata.dto.PurchaseRequest;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.impl.CatalogVersion;
+import com.backend.Kata.services.impl.InventoryAnalytics;
+import com.backend.Kata.services.impl.InventoryMetrics;
+import com.backend.Kata.services.impl.PurchaseLedger;
+import com.backend.Kata.services.impl.StockAlerts;
+import com.backend.Kata.services.impl.SweetCache;
+import com.backend.Kata.services.impl.SweetNameIndex;
+import com.backend.Kata.services.impl.SweetServiceImpl;
+import com.backend.Kata.services.impl.WriteBehindSweetService;
+import com.backend.Kata.support.JpaSliceTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaSliceTest
+@TestPropertySource(properties = {"kata.inventory.write-behind.enabled=true",
+        "kata.inventory.write-behind.flush-interval=1h"})
+@Import({WriteBehindSweetService.class, SweetServiceImpl.class, SweetNameIndex.class, SweetCache.class,
+        CatalogVersion.class, CacheConfiguration.class, InventoryMetrics.class, PurchaseLedger.class,
+        InventoryAnalytics.class, StockAlerts.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WriteBehindJournalTest {
+
+    @Autowired
+    private WriteBehindSweetService sweetService;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM stock_journal");
+        sweetRepository.deleteAll();
+    }
+
+    @Test
+    void testPurchasesAreJournaledUntilTheFlushAppliesThem() {
+        Long id = sweetRepository.save(new Sweet(null, "Journal Fudge", "Fudge", new BigDecimal("1.00"), 10)).getId();
+        sweetService.loadStock();
+
+        assertEquals(7, sweetService.purchaseSweet(id, purchase(3)).getQuantity());
+        assertEquals(5, sweetService.purchaseSweet(id, purchase(2)).getQuantity());
+        assertEquals(-5, jdbcTemplate.queryForObject(
+                "SELECT SUM(delta) FROM stock_journal WHERE sweet_id = ?", Integer.class, id));
+        assertEquals(10, quantity(id));
+
+        sweetService.flush();
+
+        assertEquals(5, quantity(id));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_journal", Integer.class));
+    }
+
+    private int quantity(Long id) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM sweet WHERE id = ?", Integer.class, id);
+    }
+
+    private PurchaseRequest purchase(int quantity) {
+        PurchaseRequest request = new PurchaseRequest();
+        request.setQuantity(quantity);
+        return request;
+    }
+}
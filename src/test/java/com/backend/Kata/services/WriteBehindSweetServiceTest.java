@@ -0,0 +1,338 @@
+package com.backend.Kata.services;
+
+import com.backend.Kata.dto.BulkOperationResponse;
+import com.backend.Kata.dto.BulkRestockRequest;
+import com.backend.Kata.dto.PurchaseRequest;
+import com.backend.Kata.dto.RestockItem;
+import com.backend.Kata.dto.RestockRequest;
+import com.backend.Kata.dto.SweetResponse;
+import com.backend.Kata.dto.UpdateSweetRequest;
+import com.backend.Kata.entities.Sweet;
+import com.backend.Kata.repository.SweetRepository;
+import com.backend.Kata.services.impl.CatalogVersion;
+import com.backend.Kata.services.impl.InventoryAnalytics;
+import com.backend.Kata.services.impl.InventoryMetrics;
+import com.backend.Kata.services.impl.PurchaseLedger;
+import com.backend.Kata.services.impl.SweetCache;
+import com.backend.Kata.services.impl.SweetServiceImpl;
+import com.backend.Kata.services.impl.WriteBehindSweetService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindSweetServiceTest {
+
+    @Mock
+    private SweetServiceImpl delegate;
+
+    @Mock
+    private SweetRepository sweetRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SweetCache sweetCache;
+
+    @Mock
+    private PurchaseLedger purchaseLedger;
+
+    @Mock
+    private InventoryAnalytics inventoryAnalytics;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private WriteBehindSweetService sweetService;
+
+    private Sweet sweet;
+
+    // Stands in for stock_journal, one {id, sweet id, delta} per row
+    private final List<long[]> journal = new ArrayList<>();
+    private final List<Object[]> applied = new ArrayList<>();
+    private long journalIds;
+    private boolean failApply;
+
+    @BeforeEach
+    void setUp() {
+        sweet = new Sweet();
+        sweet.setId(1L);
+        sweet.setName("Chocolate Bar");
+        sweet.setCategory("Chocolate");
+        sweet.setPrice(new BigDecimal("2.50"));
+        sweet.setQuantity(100);
+        lenient().when(sweetRepository.findAll()).thenReturn(List.of(sweet));
+        fakeJournal();
+        runTransactionsInline();
+
+        sweetService = newService();
+        sweetService.loadStock();
+    }
+
+    @Test
+    void testPurchaseAndRestockAreJournaledNotApplied() {
+        SweetResponse purchased = sweetService.purchaseSweet(1L, purchase(30));
+        SweetResponse restocked = sweetService.restockSweet(1L, restock(5));
+
+        assertEquals(70, purchased.getQuantity());
+        assertEquals(75, restocked.getQuantity());
+        assertEquals("Chocolate Bar", restocked.getName());
+        assertEquals(List.of(-30L, 5L), journal.stream().map(entry -> entry[2]).toList());
+        assertTrue(applied.isEmpty());
+        verify(purchaseLedger, times(1)).record(1L, 30, new BigDecimal("2.50"));
+        verify(inventoryAnalytics, times(1)).sold(1L, "Chocolate", 30, new BigDecimal("2.50"));
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void testBulkRestockIsJournaledInOneBatch() {
+        BulkRestockRequest request = new BulkRestockRequest();
+        request.setItems(List.of(new RestockItem(1L, 5), new RestockItem(2L, 5), new RestockItem(1L, 10)));
+
+        BulkOperationResponse response = sweetService.restockSweets(request);
+
+        assertEquals(List.of(1L), response.getAffectedIds());
+        assertEquals(List.of(2L), response.getMissingIds());
+        assertEquals(1, journal.size());
+        assertEquals(15L, journal.get(0)[2]);
+        assertEquals(85, sweetService.purchaseSweet(1L, purchase(30)).getQuantity());
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void testFailedJournalWriteGivesTheStockBack() {
+        when(jdbcTemplate.update(startsWith("INSERT INTO stock_journal"), anyLong(), anyInt()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+
+        assertThrows(QueryTimeoutException.class, () -> sweetService.purchaseSweet(1L, purchase(30)));
+        assertEquals(0, sweetService.purchaseSweet(1L, purchase(100)).getQuantity());
+    }
+
+    @Test
+    void testLiveStockIsOverlaidOnACopy() {
+        SweetResponse cached = new SweetResponse(1L, "Chocolate Bar", "Chocolate", new BigDecimal("2.50"), 100, 0L);
+        when(delegate.getSweetById(1L)).thenReturn(cached);
+        sweetService.purchaseSweet(1L, purchase(30));
+
+        assertEquals(70, sweetService.getSweetById(1L).getQuantity());
+        assertEquals(100, cached.getQuantity());
+    }
+
+    @Test
+    void testReloadKeepsUnflushedPurchases() {
+        sweetService.purchaseSweet(1L, purchase(30));
+        failApply = true;
+        sweetService.loadStock();
+
+        // The flush before the reload failed: the database still says 100 and the purchase is still journaled
+        assertEquals(69, sweetService.purchaseSweet(1L, purchase(1)).getQuantity());
+    }
+
+    @Test
+    void testJournalIsReplayedAfterACrash() {
+        sweetService.purchaseSweet(1L, purchase(30));
+
+        // A new instance over the same database, without the first one ever flushing
+        WriteBehindSweetService restarted = newService();
+        restarted.loadStock();
+
+        assertEquals(70, sweet.getQuantity());
+        assertTrue(journal.isEmpty());
+        assertEquals(69, restarted.purchaseSweet(1L, purchase(1)).getQuantity());
+    }
+
+    @Test
+    void testPurchaseDuringQuantityOverwriteIsTurnedAway() {
+        UpdateSweetRequest update = new UpdateSweetRequest();
+        update.setQuantity(2);
+        when(delegate.updateSweet(1L, update, null)).thenAnswer(invocation -> {
+            // Checked against the 100 being replaced, these would leave -3 behind
+            assertThrows(OptimisticLockingFailureException.class, () -> sweetService.purchaseSweet(1L, purchase(5)));
+            assertThrows(OptimisticLockingFailureException.class, () -> sweetService.restockSweet(1L, restock(4)));
+            return new SweetResponse(1L, "Chocolate Bar", "Chocolate", new BigDecimal("2.50"), 2, 1L);
+        });
+
+        assertEquals(2, sweetService.updateSweet(1L, update, null).getQuantity());
+        assertEquals(1, sweetService.purchaseSweet(1L, purchase(1)).getQuantity());
+    }
+
+    @Test
+    void testFailedQuantityOverwriteReleasesTheStock() {
+        UpdateSweetRequest update = new UpdateSweetRequest();
+        update.setQuantity(2);
+        when(delegate.updateSweet(1L, update, null)).thenThrow(new RuntimeException("Sweet not found with id: 1"));
+
+        assertThrows(RuntimeException.class, () -> sweetService.updateSweet(1L, update, null));
+        assertEquals(95, sweetService.purchaseSweet(1L, purchase(5)).getQuantity());
+    }
+
+    @Test
+    void testQuantityOverwriteNeedsTheJournalFlushed() {
+        sweetService.purchaseSweet(1L, purchase(5));
+        failApply = true;
+        UpdateSweetRequest update = new UpdateSweetRequest();
+        update.setQuantity(2);
+
+        // Otherwise the journaled purchase would land on top of the new value
+        assertThrows(QueryTimeoutException.class, () -> sweetService.updateSweet(1L, update, null));
+        verify(delegate, never()).updateSweet(any(), any(), any());
+        assertEquals(90, sweetService.purchaseSweet(1L, purchase(5)).getQuantity());
+    }
+
+    @Test
+    void testPurchaseInsufficientStock() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> sweetService.purchaseSweet(1L, purchase(101)));
+        assertTrue(ex.getMessage().startsWith("Insufficient stock"));
+    }
+
+    @Test
+    void testPurchaseUnknownSweet() {
+        assertThrows(RuntimeException.class, () -> sweetService.purchaseSweet(2L, purchase(1)));
+    }
+
+    @Test
+    void testPurchaseOutcomesAreCounted() {
+        sweetService.purchaseSweet(1L, purchase(1));
+        assertThrows(RuntimeException.class, () -> sweetService.purchaseSweet(1L, purchase(1000)));
+        assertThrows(RuntimeException.class, () -> sweetService.purchaseSweet(2L, purchase(1)));
+
+        assertEquals(1, purchases("success"));
+        assertEquals(1, purchases("insufficient_stock"));
+        assertEquals(1, purchases("not_found"));
+    }
+
+    @Test
+    void testFlushWritesNetDeltaInOneBatch() {
+        sweetService.purchaseSweet(1L, purchase(30));
+        sweetService.restockSweet(1L, restock(5));
+
+        sweetService.flush();
+        sweetService.flush();
+
+        assertEquals(1, applied.size());
+        assertArrayEquals(new Object[]{-25, 1L}, applied.get(0));
+        assertTrue(journal.isEmpty());
+        assertEquals(75, sweet.getQuantity());
+        verify(sweetCache, times(1)).evict(List.of(1L));
+    }
+
+    @Test
+    void testFailedFlushKeepsTheJournalForRetry() {
+        sweetService.purchaseSweet(1L, purchase(10));
+        failApply = true;
+        sweetService.flush();
+
+        failApply = false;
+        sweetService.purchaseSweet(1L, purchase(5));
+        sweetService.flush();
+
+        assertEquals(1, applied.size());
+        assertArrayEquals(new Object[]{-15, 1L}, applied.get(0));
+        assertEquals(1, meterRegistry.get("kata.inventory.flush.failures").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushWhoseCommitFailedIsNotAppliedTwice() {
+        sweetService.purchaseSweet(1L, purchase(10));
+        // The batch and the journal delete went through, only the commit reported an error
+        doAnswer(invocation -> {
+            ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null);
+            throw new QueryTimeoutException("commit timed out");
+        }).doAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+
+        sweetService.flush();
+        sweetService.flush();
+
+        assertEquals(1, applied.size());
+        assertEquals(90, sweet.getQuantity());
+    }
+
+    private WriteBehindSweetService newService() {
+        meterRegistry = new SimpleMeterRegistry();
+        return new WriteBehindSweetService(delegate, sweetRepository, jdbcTemplate, transactionTemplate,
+                sweetCache, new CatalogVersion(), new InventoryMetrics(meterRegistry), purchaseLedger, inventoryAnalytics);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fakeJournal() {
+        lenient().when(jdbcTemplate.update(startsWith("INSERT INTO stock_journal"), anyLong(), anyInt())).thenAnswer(invocation -> {
+            journal.add(new long[]{++journalIds, invocation.getArgument(1), ((Integer) invocation.getArgument(2))});
+            return 1;
+        });
+        lenient().when(jdbcTemplate.query(startsWith("SELECT id, sweet_id, delta FROM stock_journal"), any(RowMapper.class)))
+                .thenAnswer(invocation -> journal.stream().map(long[]::clone).toList());
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            List<Object[]> rows = invocation.getArgument(1);
+            if (sql.startsWith("INSERT INTO stock_journal")) {
+                rows.forEach(row -> journal.add(new long[]{++journalIds, (Long) row[0], (Integer) row[1]}));
+            } else if (sql.startsWith("UPDATE sweet")) {
+                if (failApply) {
+                    throw new QueryTimeoutException("timeout");
+                }
+                applied.addAll(rows);
+                rows.forEach(row -> sweet.setQuantity(sweet.getQuantity() + (Integer) row[0]));
+            } else if (sql.startsWith("DELETE FROM stock_journal")) {
+                rows.forEach(row -> journal.removeIf(entry -> entry[0] == (Long) row[0]));
+            }
+            return new int[rows.size()];
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        lenient().doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().doAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+    }
+
+    private PurchaseRequest purchase(int quantity) {
+        PurchaseRequest request = new PurchaseRequest();
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    private RestockRequest restock(int quantity) {
+        RestockRequest request = new RestockRequest();
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    private double purchases(String outcome) {
+        return meterRegistry.get("kata.inventory.purchases").tag("outcome", outcome).counter().count();
+    }
+}
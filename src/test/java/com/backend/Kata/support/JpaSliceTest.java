@@ -0,0 +1,33 @@
+package com.backend.Kata.support;
+
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A {@link DataJpaTest} slice against the Flyway-migrated H2 schema of the {@code h2}
+ * profile rather than an embedded replacement database.
+ * <p>
+ * The slice never loads the security configuration, but {@code KataApplication} injects a
+ * {@link PasswordEncoder} to seed the admin user, so a mock stands in for it. Tests that
+ * commit from other threads add {@code @Transactional(propagation = NOT_SUPPORTED)}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@MockitoBean(types = PasswordEncoder.class)
+public @interface JpaSliceTest {
+}
@@ -0,0 +1,41 @@
+package com.backend.Kata.support;
+
+import com.backend.Kata.config.SqlStatementCounter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Assertions on the SQL an action runs on the calling thread, as counted by
+ * {@link SqlStatementCounter}. MockMvc dispatches on the test thread, so an endpoint's
+ * statements are all seen:
+ * <pre>
+ * assertStatements(1, () -&gt; mockMvc.perform(get("/api/sweets/1")));
+ * </pre>
+ */
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    public static SqlStatementCounter.Scope count(Action action) throws Exception {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        action.run();
+        return scope;
+    }
+
+    public static void assertStatements(long expected, Action action) throws Exception {
+        assertEquals(expected, count(action).statements(), "SQL statements executed");
+    }
+
+    public static void assertStatementsAndRows(long expectedStatements, long expectedRows, Action action)
+            throws Exception {
+        SqlStatementCounter.Scope scope = count(action);
+        assertEquals(expectedStatements, scope.statements(), "SQL statements executed");
+        assertEquals(expectedRows, scope.rows(), "SQL rows read or written");
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+}